@@ -2,8 +2,10 @@ package com.app.eaglebank;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class EagleBankApplication {
 
     public static void main(String[] args) {
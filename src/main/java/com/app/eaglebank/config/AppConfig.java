@@ -1,13 +1,26 @@
 package com.app.eaglebank.config;
 
 import com.app.eaglebank.repository.UserRepository;
+import com.app.eaglebank.security.BCryptCostCalibrator;
+import com.app.eaglebank.security.BoundedPasswordEncoder;
 import com.app.eaglebank.security.CustomUserDetailsService;
 import com.app.eaglebank.security.JwtAuthenticationFilter;
+import com.app.eaglebank.security.PrincipalCache;
+import com.app.eaglebank.security.RateLimitFilter;
+import com.app.eaglebank.security.RateLimiter;
+import com.app.eaglebank.security.TokenVersionRegistry;
 import com.app.eaglebank.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * Application configuration class for Eagle Bank security and authentication components.
@@ -26,9 +39,28 @@ public class AppConfig {
         this.userRepository = userRepository;
     }
 
+    // Hashes are stored as {id}hash so the algorithm or its cost can change without a migration;
+    // hashing runs on its own bounded pool so login bursts cannot take the CPU from other endpoints
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${eaglebank.security.password-hashing.algorithm:bcrypt}") String algorithm,
+                                           @Value("${eaglebank.security.bcrypt.strength:0}") int strength,
+                                           @Value("${eaglebank.security.bcrypt.target-hash-time:100ms}") Duration targetHashTime,
+                                           @Value("${eaglebank.security.password-hashing.threads:0}") int threads,
+                                           @Value("${eaglebank.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        // 0 strength means calibrate the cost to the target hash time on this machine
+        int bcryptStrength = strength > 0 ? strength : BCryptCostCalibrator.calibrate(targetHashTime);
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain bcrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        // 0 threads means half the processors, leaving the rest for request handling
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, meterRegistry);
     }
 
     @Bean
@@ -42,7 +74,17 @@ public class AppConfig {
     }
 
     @Bean
-    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService customUserDetailsService) {
-        return new JwtAuthenticationFilter(jwtService, customUserDetailsService);
+    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService customUserDetailsService,
+                                                           PrincipalCache principalCache,
+                                                           TokenVersionRegistry tokenVersionRegistry,
+                                                           @Value("${eaglebank.security.stateless-principal:false}") boolean statelessPrincipal) {
+        return new JwtAuthenticationFilter(jwtService, customUserDetailsService, principalCache,
+                tokenVersionRegistry, statelessPrincipal);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter,
+                                           @Value("${eaglebank.rate-limit.enabled:true}") boolean enabled) {
+        return new RateLimitFilter(rateLimiter, enabled);
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.app.eaglebank.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * The database product behind the application's DataSource, read from the connection
+ * metadata once at startup.
+ *
+ * Components with PostgreSQL-only behaviour (advisory locks, LISTEN/NOTIFY, partition
+ * maintenance) check it here instead of borrowing a connection on every scheduled run.
+ */
+
+@Component
+public class DatabasePlatform {
+
+    private final String productName;
+
+    @Autowired
+    public DatabasePlatform(DataSource dataSource) throws MetaDataAccessException {
+        this(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    public DatabasePlatform(String productName) {
+        this.productName = productName;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public boolean isPostgres() {
+        return "PostgreSQL".equals(productName);
+    }
+}
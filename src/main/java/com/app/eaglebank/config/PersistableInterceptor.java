@@ -0,0 +1,20 @@
+package com.app.eaglebank.config;
+
+import org.hibernate.Interceptor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Hibernate interceptor that answers "is this entity new?" from Persistable.isNew().
+ *
+ * Our entities get their ids from the application, so Hibernate cannot tell a new instance
+ * from a detached one by its id and falls back to selecting the row. Entities implementing
+ * Persistable already track this, which saves that round-trip; others are left to Hibernate.
+ */
+
+public class PersistableInterceptor implements Interceptor {
+
+    @Override
+    public Boolean isTransient(Object entity) {
+        return entity instanceof Persistable<?> persistable ? persistable.isNew() : null;
+    }
+}
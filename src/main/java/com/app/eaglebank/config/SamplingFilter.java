@@ -0,0 +1,32 @@
+package com.app.eaglebank.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback filter that lets through one in every sampleRate events.
+ *
+ * Used on the slow-query logger so that a database slowdown, which makes many statements
+ * slow at once, produces a representative sample instead of a log line per statement.
+ */
+
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private final AtomicLong seen = new AtomicLong();
+    private int sampleRate = 1;
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(sampleRate, 1);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (sampleRate == 1) {
+            return FilterReply.NEUTRAL;
+        }
+        return seen.getAndIncrement() % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -2,18 +2,23 @@ package com.app.eaglebank.controller;
 
 import com.app.eaglebank.dto.requests.CreateAccountRequest;
 import com.app.eaglebank.dto.responses.AccountResponse;
+import com.app.eaglebank.dto.responses.BalanceResponse;
+import com.app.eaglebank.exception.BadRequestException;
 import com.app.eaglebank.mapper.AccountMapper;
 import com.app.eaglebank.model.Account;
 import com.app.eaglebank.model.User;
 import com.app.eaglebank.repository.UserRepository;
 import com.app.eaglebank.service.AccountService;
+import com.app.eaglebank.service.BalanceSnapshotService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -30,10 +35,13 @@ public class AccountController {
 
     private final AccountService accountService;
     private final AccountMapper accountMapper;
+    private final BalanceSnapshotService balanceSnapshotService;
 
-    public AccountController(AccountService accountService, AccountMapper accountMapper) {
+    public AccountController(AccountService accountService, AccountMapper accountMapper,
+                             BalanceSnapshotService balanceSnapshotService) {
         this.accountService = accountService;
         this.accountMapper = accountMapper;
+        this.balanceSnapshotService = balanceSnapshotService;
     }
 
     @PostMapping
@@ -53,13 +61,10 @@ public class AccountController {
     // ADMIN ENDPOINT ONLY FOR TEST PURPOSES
     @GetMapping
     public ResponseEntity<List<AccountResponse>> getAllAccounts(
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        // Extract email from authenticated user
-        String email = userDetails.getUsername();
+            @AuthenticationPrincipal User authenticatedUser) {
 
-        // Get all accounts belonging to the user
-        List<Account> accounts = accountService.getAccountsByUserEmail(email);
+        // Get all accounts belonging to the authenticated user
+        List<Account> accounts = accountService.getAccountsByUser(authenticatedUser);
 
         // Convert to response DTOs
         List<AccountResponse> response = accounts.stream()
@@ -82,5 +87,25 @@ public class AccountController {
         return ResponseEntity.ok(response);
     }
 
-}
+    @GetMapping("/{accountNumber}/balance")
+    public ResponseEntity<BalanceResponse> getBalance(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String at,
+            @AuthenticationPrincipal User authenticatedUser) {
+
+        // Default to the current balance when no instant is given
+        Instant instant;
+        try {
+            instant = at != null ? Instant.parse(at) : Instant.now();
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("'at' must be an ISO-8601 instant, e.g. 2025-01-31T23:59:59Z");
+        }
 
+        // Fetch account with ownership validation, then resolve the balance from the nearest snapshot
+        Account account = accountService.getUserAccountByAccountNumber(accountNumber, authenticatedUser);
+        BigDecimal balance = balanceSnapshotService.getBalanceAt(account, instant);
+
+        return ResponseEntity.ok(new BalanceResponse(account.getAccountNumber(), balance, account.getCurrency(), instant));
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.app.eaglebank.controller;
+
+import com.app.eaglebank.dto.requests.CreateTransactionBatchRequest;
+import com.app.eaglebank.dto.responses.TransactionBatchResponse;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.service.TransactionBatchService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for bulk transaction ingestion in the Eagle Bank application.
+ *
+ * Accepts batches of deposits and withdrawals for one account or across several accounts
+ * owned by the caller, and reports the outcome of every item individually. Lives outside
+ * TransactionController because the ":batch" suffix cannot be expressed under its mapping.
+ */
+
+@RestController
+@RequestMapping("/v1")
+public class TransactionBatchController {
+
+    private final TransactionBatchService transactionBatchService;
+
+    public TransactionBatchController(TransactionBatchService transactionBatchService) {
+        this.transactionBatchService = transactionBatchService;
+    }
+
+    @PostMapping("/accounts/{accountNumber}/transactions:batch")
+    public ResponseEntity<TransactionBatchResponse> createAccountBatch(
+            @PathVariable String accountNumber,
+            @Valid @RequestBody CreateTransactionBatchRequest request,
+            @AuthenticationPrincipal User authenticatedUser
+    ) {
+        return ResponseEntity.ok(
+                transactionBatchService.createBatch(accountNumber, request.getTransactions(), authenticatedUser));
+    }
+
+    @PostMapping("/transactions:batch")
+    public ResponseEntity<TransactionBatchResponse> createMultiAccountBatch(
+            @Valid @RequestBody CreateTransactionBatchRequest request,
+            @AuthenticationPrincipal User authenticatedUser
+    ) {
+        return ResponseEntity.ok(
+                transactionBatchService.createBatch(request.getTransactions(), authenticatedUser));
+    }
+}
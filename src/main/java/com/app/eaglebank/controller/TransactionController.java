@@ -1,18 +1,21 @@
 package com.app.eaglebank.controller;
 
 import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.dto.responses.TransactionPageResponse;
 import com.app.eaglebank.dto.responses.TransactionResponse;
 import com.app.eaglebank.exception.ResourceNotFoundException;
-import com.app.eaglebank.model.Transaction;
 import com.app.eaglebank.model.User;
+import com.app.eaglebank.service.TransactionExportService;
+import com.app.eaglebank.service.TransactionExportService.ExportFormat;
 import com.app.eaglebank.service.TransactionService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller for managing financial transactions in the Eagle Bank application.
@@ -27,35 +30,39 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
     // Delegate transaction creation to the service layer
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, TransactionExportService transactionExportService) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
     }
 
     @PostMapping
     public ResponseEntity<TransactionResponse> createTransaction(
             @PathVariable String accountNumber,
             @Valid @RequestBody CreateTransactionRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal User authenticatedUser
     ) {
-        Transaction txn = transactionService.createTransaction(accountNumber, request, authenticatedUser);
-        TransactionResponse response = new TransactionResponse(txn);
+        // A retry carrying the same Idempotency-Key gets the original response instead of a second posting
+        TransactionResponse response = transactionService.createTransaction(
+                accountNumber, request, authenticatedUser, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
     }
 
     @GetMapping
-    public ResponseEntity<List<TransactionResponse>> getTransactions(
+    public ResponseEntity<TransactionPageResponse> getTransactions(
             @PathVariable String accountNumber,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
             @AuthenticationPrincipal User authenticatedUser
     ) {
         try {
-            List<Transaction> transactions = transactionService.getTransactionsByAccountId(accountNumber, authenticatedUser);
-            // Convert entities to detailed responses
-            List<TransactionResponse> response = transactions.stream()
-                    .map(TransactionResponse::new)
-                    .toList();
+            // Newest first, one keyset page at a time
+            TransactionPageResponse response = transactionService.getTransactionPage(
+                    accountNumber, authenticatedUser, limit, after);
 
             return ResponseEntity.ok(response);
         } catch (ResourceNotFoundException e) {
@@ -65,4 +72,28 @@ public class TransactionController {
         }
 
     }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @AuthenticationPrincipal User authenticatedUser
+    ) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        try {
+            // Rows are streamed to the client as they are read from the database
+            StreamingResponseBody body = transactionExportService.exportTransactions(
+                    accountNumber, authenticatedUser, exportFormat);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + accountNumber
+                            + "-transactions." + exportFormat.name().toLowerCase() + "\"")
+                    .body(body);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+    }
 }
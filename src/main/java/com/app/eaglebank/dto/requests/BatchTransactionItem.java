@@ -0,0 +1,10 @@
+package com.app.eaglebank.dto.requests;
+
+// A single posting inside a batch; the account number is only needed for multi-account batches
+public class BatchTransactionItem extends CreateTransactionRequest {
+
+    private String accountNumber;
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+}
@@ -0,0 +1,17 @@
+package com.app.eaglebank.dto.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class CreateTransactionBatchRequest {
+
+    // Items are validated one by one so a bad item fails on its own instead of rejecting the batch
+    @NotEmpty(message = "At least one transaction is required")
+    @Size(max = 1000, message = "A batch cannot contain more than 1000 transactions")
+    private List<BatchTransactionItem> transactions;
+
+    public List<BatchTransactionItem> getTransactions() { return transactions; }
+    public void setTransactions(List<BatchTransactionItem> transactions) { this.transactions = transactions; }
+}
@@ -0,0 +1,25 @@
+package com.app.eaglebank.dto.responses;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class BalanceResponse {
+
+    private String accountNumber;
+    private BigDecimal balance;
+    private String currency;
+    private Instant at;
+
+    public BalanceResponse(String accountNumber, BigDecimal balance, String currency, Instant at) {
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.currency = currency;
+        this.at = at;
+    }
+
+    // Getters
+    public String getAccountNumber() { return accountNumber; }
+    public BigDecimal getBalance() { return balance; }
+    public String getCurrency() { return currency; }
+    public Instant getAt() { return at; }
+}
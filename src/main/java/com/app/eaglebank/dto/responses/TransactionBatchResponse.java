@@ -0,0 +1,56 @@
+package com.app.eaglebank.dto.responses;
+
+import java.util.List;
+
+public class TransactionBatchResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results;
+
+    public TransactionBatchResponse(List<ItemResult> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(ItemResult::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    // Getters
+    public int getSucceeded() { return succeeded; }
+    public int getFailed() { return failed; }
+    public List<ItemResult> getResults() { return results; }
+
+    // Outcome of one item, reported at the same index it had in the request
+    public static class ItemResult {
+
+        private int index;
+        private String accountNumber;
+        private String status;
+        private TransactionResponse transaction;
+        private String error;
+
+        private ItemResult(int index, String accountNumber, String status, TransactionResponse transaction, String error) {
+            this.index = index;
+            this.accountNumber = accountNumber;
+            this.status = status;
+            this.transaction = transaction;
+            this.error = error;
+        }
+
+        public static ItemResult success(int index, String accountNumber, TransactionResponse transaction) {
+            return new ItemResult(index, accountNumber, "success", transaction, null);
+        }
+
+        public static ItemResult failure(int index, String accountNumber, String error) {
+            return new ItemResult(index, accountNumber, "failed", null, error);
+        }
+
+        // Getters
+        public int getIndex() { return index; }
+        public String getAccountNumber() { return accountNumber; }
+        public String getStatus() { return status; }
+        public TransactionResponse getTransaction() { return transaction; }
+        public String getError() { return error; }
+
+        public boolean isSuccess() { return transaction != null; }
+    }
+}
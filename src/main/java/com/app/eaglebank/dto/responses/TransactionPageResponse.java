@@ -0,0 +1,20 @@
+package com.app.eaglebank.dto.responses;
+
+import java.util.List;
+
+public class TransactionPageResponse {
+
+    private List<TransactionResponse> transactions;
+
+    // Cursor to pass as "after" for the next page; null on the last page
+    private String nextCursor;
+
+    public TransactionPageResponse(List<TransactionResponse> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<TransactionResponse> getTransactions() { return transactions; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Pattern;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.UUID;
 
 public class TransactionResponse {
 
@@ -40,6 +41,18 @@ public class TransactionResponse {
         this.createdTimestamp = txn.getTimestamp();
     }
 
+    // Projection constructor used by JPQL "select new" queries, so listing never touches lazy associations
+    public TransactionResponse(String id, BigDecimal amount, String currency, String type,
+                               String reference, UUID userId, Instant createdTimestamp) {
+        this.id = id;
+        this.amount = amount;
+        this.currency = currency;
+        this.type = type;
+        this.reference = reference;
+        this.userId = userId.toString();
+        this.createdTimestamp = createdTimestamp;
+    }
+
     // Getters
     public String getId() { return id; }
     public BigDecimal getAmount() { return amount; }
@@ -37,6 +37,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<?> handleResponseStatusException(ResponseStatusException ex) {
         return ResponseEntity
                 .status(ex.getStatusCode())
+                .headers(ex.getHeaders())
                 .body(Map.of(
                         "status", ex.getStatusCode().value(),
                         "error", ex.getReason()
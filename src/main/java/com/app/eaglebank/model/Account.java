@@ -4,14 +4,24 @@ import com.app.eaglebank.dto.requests.CreateAccountRequest;
 import com.app.eaglebank.model.AccountType;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-public class Account {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "accounts")
+@NaturalIdCache(region = "accounts-by-number")
+@Table(indexes = {
+        @Index(name = "idx_account_user_id", columnList = "user_id")
+})
+public class Account implements Persistable<UUID> {
 
     @Id
     private UUID id = UUID.randomUUID();
@@ -23,6 +33,7 @@ public class Account {
     @Enumerated(EnumType.STRING)
     private AccountType accountType;
 
+    @NaturalId
     @NotBlank
     @Pattern(regexp = "^01\\d{6}$", message = "Account number must start with 01 and be 8 digits long")
     @Column(name = "account_number", nullable = false, unique = true)
@@ -56,7 +67,40 @@ public class Account {
     @Column(name = "updated_at")
     private Instant updatedTimestamp;
 
+    // Loaded accounts are linked to new transactions while detached; this flag lets Hibernate skip an existence check
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public Account() {}
+
+    // Detached copy of a stored account; the owning user is shared, and the copy is never new
+    public Account(Account other) {
+        this.id = other.id;
+        this.user = other.user;
+        this.accountType = other.accountType;
+        this.accountNumber = other.accountNumber;
+        this.sortCode = other.sortCode;
+        this.name = other.name;
+        this.currency = other.currency;
+        this.balance = other.balance;
+        this.createdTimestamp = other.createdTimestamp;
+        this.updatedTimestamp = other.updatedTimestamp;
+        markNotNew();
+    }
+
     // Getters and setters
+    @Override
     public UUID getId() {
         return id;
     }
@@ -0,0 +1,47 @@
+package com.app.eaglebank.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Transaction moved out of the hot table by TransactionArchiver; rows are only ever appended and read
+@Entity
+@Immutable
+@Table(name = "transactions_archive", indexes = {
+        @Index(name = "idx_transactions_archive_account_timestamp_id", columnList = "account_id, timestamp, id")
+})
+public class ArchivedTransaction {
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private String id;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Column(nullable = false)
+    private String type;
+
+    private String reference;
+
+    @Column(nullable = false)
+    private Instant timestamp;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
+    private Account account;
+
+    // Getters
+    public String getId() { return id; }
+    public BigDecimal getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+    public String getType() { return type; }
+    public String getReference() { return reference; }
+    public Instant getTimestamp() { return timestamp; }
+    public Account getAccount() { return account; }
+}
@@ -0,0 +1,60 @@
+package com.app.eaglebank.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+// Balance of an account after every posting timestamped at or before asOf
+@Entity
+@Table(name = "balance_snapshots", indexes = {
+        @Index(name = "idx_balance_snapshots_account_as_of", columnList = "account_id, as_of")
+})
+public class BalanceSnapshot implements Persistable<UUID> {
+
+    @Id
+    private UUID id = UUID.randomUUID();
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal balance;
+
+    public BalanceSnapshot() {}
+
+    public BalanceSnapshot(Account account, Instant asOf, BigDecimal balance) {
+        this.account = account;
+        this.asOf = asOf;
+        this.balance = balance;
+    }
+
+    // Snapshots are always new when saved; persist them directly instead of merging
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+
+    // Getters/setters
+    @Override
+    public UUID getId() { return id; }
+    public Account getAccount() { return account; }
+    public Instant getAsOf() { return asOf; }
+    public BigDecimal getBalance() { return balance; }
+
+    public void setId(UUID id) { this.id = id; }
+    public void setAccount(Account account) { this.account = account; }
+    public void setAsOf(Instant asOf) { this.asOf = asOf; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
@@ -1,6 +1,7 @@
 package com.app.eaglebank.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 
@@ -9,8 +10,11 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
-public class Transaction {
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_timestamp_id", columnList = "account_id, timestamp, id"),
+        @Index(name = "idx_transactions_timestamp", columnList = "timestamp")
+})
+public class Transaction implements Persistable<String> {
 
     @Id
     @NotNull
@@ -36,7 +40,19 @@ public class Transaction {
     @JoinColumn(name = "account_id")
     private Account account;
 
+    // Ids are assigned before saving, so tell Spring Data which rows are new and skip the merge SELECT
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+
     // Getters/setters
+    @Override
     public String getId() { return id; }
     public BigDecimal getAmount() { return amount; }
     public String getCurrency() { return currency; }
@@ -7,7 +7,11 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -17,12 +21,18 @@ import java.util.Collections;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_users_phone_number", columnNames = "phone_number")
+})
 public class User implements UserDetails {
 
     @Id
     private UUID id = UUID.randomUUID();
 
+    @NaturalId
     @NotNull
     @NotBlank(message = "Email is required")
     @Email(message = "Email must be valid")
@@ -50,6 +60,11 @@ public class User implements UserDetails {
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) //Only show password in request not in the response
     private String password;
 
+    // Bumped whenever previously issued tokens must stop being accepted
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     public User() {}
 
     //Constructor with fields
@@ -131,6 +146,15 @@ public class User implements UserDetails {
     public Address getAddress() {
         return address;
     }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     // UserDetails overrides
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -2,17 +2,33 @@ package com.app.eaglebank.repository;
 
 import com.app.eaglebank.model.Account;
 import com.app.eaglebank.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, UUID>, AccountRepositoryCustom {
+    // Cached: membership only changes when an account is inserted, which invalidates the result
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Account> findByUser(User user);
     boolean existsByUser(User user);
-    Optional<Account> findByAccountNumber(String accountNumber);
+    boolean existsByAccountNumber(String accountNumber);
+
+    // Reads the row itself rather than a cached copy; postings decide against this balance
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findCurrentByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("select a.balance from Account a where a.id = :id")
+    BigDecimal findBalanceById(@Param("id") UUID id);
 
 }
 
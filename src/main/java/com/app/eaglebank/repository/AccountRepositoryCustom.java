@@ -0,0 +1,17 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.model.Account;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AccountRepositoryCustom {
+
+    // Served from the second-level cache's natural-id region when the account has been seen before
+    Optional<Account> findByAccountNumber(String accountNumber);
+
+    // Atomically applies a signed balance change; returns 0 when the result would leave [0, maxBalance]
+    int applyBalanceDelta(UUID id, BigDecimal delta, BigDecimal maxBalance, Instant now);
+}
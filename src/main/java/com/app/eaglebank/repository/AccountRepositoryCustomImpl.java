@@ -0,0 +1,89 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.model.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.SynchronizeableQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Account queries that work with the Hibernate second-level cache rather than around it.
+ *
+ * Lookups by account number go through the natural-id cache, so a repeat lookup needs no
+ * query. Balance changes stay a single conditional UPDATE, but where Hibernate would evict the
+ * whole account region after any bulk statement, only the changed account's entry is locked
+ * until the transaction completes, exactly as for an ordinary entity update.
+ */
+
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    // Matches no mapped table, so the statement invalidates no cache region by itself
+    private static final String BALANCE_QUERY_SPACE = "account_balance";
+
+    private static final String APPLY_BALANCE_DELTA_SQL =
+            "update account set balance = balance + :delta, updated_at = :now " +
+            "where id = :id and balance + :delta >= 0 and balance + :delta <= :maxBalance";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // AccountService and the export read accounts through AccountCache without a transaction, and the
+    // session unwrapped below has to stay open until the natural-id load returns
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Account.class)
+                .loadOptional(accountNumber);
+    }
+
+    @Override
+    public int applyBalanceDelta(UUID id, BigDecimal delta, BigDecimal maxBalance, Instant now) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Account.class);
+
+        // Flush pending changes first and detach the account afterwards, so a loaded copy of it
+        // can never be flushed back over the new balance
+        session.flush();
+        lockCachedAccount(session, persister, id);
+        MutationQuery update = session.createNativeMutationQuery(APPLY_BALANCE_DELTA_SQL)
+                .setParameter("id", id)
+                .setParameter("delta", delta)
+                .setParameter("maxBalance", maxBalance)
+                .setParameter("now", now);
+        // Native statements are mutation queries that can name their query spaces
+        ((SynchronizeableQuery) update).addSynchronizedQuerySpace(BALANCE_QUERY_SPACE);
+        int updated = update.executeUpdate();
+
+        // Only this account: the caller's other managed entities keep their pending state
+        Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+        if (managed != null) {
+            session.detach(managed);
+        }
+        return updated;
+    }
+
+    // Until the transaction completes the entry is not served, and loads that began before it completed are not cached
+    private void lockCachedAccount(SessionImplementor session, EntityPersister persister, UUID id) {
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        if (cacheAccess == null) {
+            return;
+        }
+
+        Object key = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cacheAccess.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completedSession) ->
+                cacheAccess.unlockItem(completedSession, key, lock));
+    }
+}
@@ -0,0 +1,57 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.dto.responses.TransactionResponse;
+import com.app.eaglebank.model.ArchivedTransaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Same query shapes as TransactionRepository, served by the archive's (account_id, timestamp, id) index
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, String> {
+
+    @Query("select new com.app.eaglebank.dto.responses.TransactionResponse(" +
+            "t.id, t.amount, t.currency, t.type, t.reference, a.user.id, t.timestamp) " +
+            "from ArchivedTransaction t join t.account a where a.id = :accountId " +
+            "order by t.timestamp desc, t.id desc")
+    List<TransactionResponse> findFirstPage(@Param("accountId") UUID accountId, Limit limit);
+
+    @Query("select new com.app.eaglebank.dto.responses.TransactionResponse(" +
+            "t.id, t.amount, t.currency, t.type, t.reference, a.user.id, t.timestamp) " +
+            "from ArchivedTransaction t join t.account a where a.id = :accountId " +
+            "and t.timestamp <= :timestamp and (t.timestamp < :timestamp or t.id < :id) " +
+            "order by t.timestamp desc, t.id desc")
+    List<TransactionResponse> findPageAfter(@Param("accountId") UUID accountId,
+                                            @Param("timestamp") Instant timestamp,
+                                            @Param("id") String id,
+                                            Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.app.eaglebank.dto.responses.TransactionResponse(" +
+            "t.id, t.amount, t.currency, t.type, t.reference, a.user.id, t.timestamp) " +
+            "from ArchivedTransaction t join t.account a where a.id = :accountId " +
+            "order by t.timestamp asc, t.id asc")
+    Stream<TransactionResponse> streamByAccountId(@Param("accountId") UUID accountId);
+
+    @Query("select coalesce(sum(case when t.type = 'deposit' then t.amount else -t.amount end), 0) " +
+            "from ArchivedTransaction t where t.account.id = :accountId and t.timestamp > :from and t.timestamp <= :to")
+    BigDecimal sumDeltaBetween(@Param("accountId") UUID accountId,
+                               @Param("from") Instant from,
+                               @Param("to") Instant to);
+
+    @Query("select coalesce(sum(case when t.type = 'deposit' then t.amount else -t.amount end), 0) " +
+            "from ArchivedTransaction t where t.account.id = :accountId and t.timestamp <= :to")
+    BigDecimal sumDeltaUpTo(@Param("accountId") UUID accountId, @Param("to") Instant to);
+}
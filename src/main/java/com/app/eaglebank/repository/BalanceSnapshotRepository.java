@@ -0,0 +1,14 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, UUID> {
+
+    // Nearest snapshot at or before the given instant, served by the (account_id, as_of) index
+    Optional<BalanceSnapshot> findFirstByAccount_IdAndAsOfLessThanEqualOrderByAsOfDesc(UUID accountId, Instant asOf);
+}
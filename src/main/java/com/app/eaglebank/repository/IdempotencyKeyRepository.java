@@ -0,0 +1,68 @@
+package com.app.eaglebank.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC-backed table of Idempotency-Key values used on transaction POSTs.
+ *
+ * The primary key on (user, key) is what makes a key single-use across every instance: a
+ * second insert of the same key waits for the first one's transaction and then fails with
+ * DuplicateKeyException.
+ */
+
+@Repository
+public class IdempotencyKeyRepository {
+
+    private static final String INSERT_SQL =
+            "insert into idempotency_key (user_id, idempotency_key, request_hash, transaction_id, created_at) " +
+            "values (?, ?, ?, ?, ?)";
+
+    private static final String FIND_SQL =
+            "select request_hash, transaction_id from idempotency_key where user_id = ? and idempotency_key = ?";
+
+    private static final String DELETE_BATCH_SQL =
+            "delete from idempotency_key where (user_id, idempotency_key) in (" +
+            "select user_id, idempotency_key from idempotency_key where created_at < ? order by created_at limit ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Throws DuplicateKeyException if the user has already used this key
+    public void insert(UUID userId, String idempotencyKey, String requestHash, String transactionId, Instant createdAt) {
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+            ps.setObject(1, userId);
+            ps.setString(2, idempotencyKey);
+            ps.setString(3, requestHash);
+            ps.setString(4, transactionId);
+            ps.setObject(5, OffsetDateTime.ofInstant(createdAt, ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+    }
+
+    public Optional<StoredKey> find(UUID userId, String idempotencyKey) {
+        return jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new StoredKey(rs.getString("request_hash"), rs.getString("transaction_id")),
+                userId, idempotencyKey).stream().findFirst();
+    }
+
+    // Deletes up to limit of the oldest keys created before the cutoff; returns how many went
+    public int deleteCreatedBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_BATCH_SQL, ps -> {
+            ps.setObject(1, OffsetDateTime.ofInstant(cutoff, ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setInt(2, limit);
+        });
+    }
+
+    public record StoredKey(String requestHash, String transactionId) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.model.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * JDBC-backed bulk writer for transactions.
+ *
+ * Inserts many rows as a single JDBC batch instead of one persist per entity, which is what
+ * lets batch postings reach the database in one round-trip.
+ */
+
+@Repository
+public class TransactionBatchRepository {
+
+    private static final String INSERT_SQL =
+            "insert into transactions (id, amount, currency, type, reference, timestamp, account_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, BATCH_SIZE, (ps, txn) -> {
+            ps.setString(1, txn.getId());
+            ps.setBigDecimal(2, txn.getAmount());
+            ps.setString(3, txn.getCurrency());
+            ps.setString(4, txn.getType());
+            ps.setString(5, txn.getReference());
+            ps.setObject(6, OffsetDateTime.ofInstant(txn.getTimestamp(), ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setObject(7, txn.getAccount().getId());
+        });
+    }
+}
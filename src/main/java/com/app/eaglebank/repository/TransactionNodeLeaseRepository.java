@@ -0,0 +1,87 @@
+package com.app.eaglebank.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC-backed leases on the node ids embedded in transaction ids.
+ *
+ * Every expiry is computed from and compared with the database clock, so instances whose own
+ * clocks disagree still agree on who holds which node id. Taking over a lease is a conditional
+ * update and claiming a fresh one an insert, so two instances racing for the same node id
+ * cannot both win.
+ */
+
+@Repository
+public class TransactionNodeLeaseRepository {
+
+    private static final String NOW_SQL = "select current_timestamp";
+
+    private static final String FIND_ALL_SQL = "select node_id, expires_at from transaction_node_lease";
+
+    private static final String INSERT_SQL =
+            "insert into transaction_node_lease (node_id, owner, expires_at) values (?, ?, ?)";
+
+    private static final String TAKE_OVER_SQL =
+            "update transaction_node_lease set owner = ?, expires_at = ? where node_id = ? and expires_at < ?";
+
+    private static final String RENEW_SQL =
+            "update transaction_node_lease set expires_at = ? where node_id = ? and owner = ?";
+
+    private static final String RELEASE_SQL = "delete from transaction_node_lease where node_id = ? and owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionNodeLeaseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public OffsetDateTime databaseNow() {
+        return jdbcTemplate.queryForObject(NOW_SQL, OffsetDateTime.class);
+    }
+
+    // Expiry of every node id that has ever been leased
+    public Map<Integer, OffsetDateTime> findAll() {
+        Map<Integer, OffsetDateTime> leases = new HashMap<>();
+        jdbcTemplate.query(FIND_ALL_SQL,
+                rs -> { leases.put(rs.getInt("node_id"), rs.getObject("expires_at", OffsetDateTime.class)); });
+        return leases;
+    }
+
+    // Throws DuplicateKeyException if the node id has been leased before
+    public void insert(int nodeId, String owner, OffsetDateTime expiresAt) {
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+            ps.setInt(1, nodeId);
+            ps.setString(2, owner);
+            ps.setObject(3, expiresAt, Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+    }
+
+    // True if the previous holder's lease had expired by now and it is ours
+    public boolean takeOver(int nodeId, String owner, OffsetDateTime now, OffsetDateTime expiresAt) {
+        return jdbcTemplate.update(TAKE_OVER_SQL, ps -> {
+            ps.setString(1, owner);
+            ps.setObject(2, expiresAt, Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setInt(3, nodeId);
+            ps.setObject(4, now, Types.TIMESTAMP_WITH_TIMEZONE);
+        }) == 1;
+    }
+
+    // False if the lease has been taken over since we last renewed it
+    public boolean renew(int nodeId, String owner, OffsetDateTime expiresAt) {
+        return jdbcTemplate.update(RENEW_SQL, ps -> {
+            ps.setObject(1, expiresAt, Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setInt(2, nodeId);
+            ps.setString(3, owner);
+        }) == 1;
+    }
+
+    public void release(int nodeId, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, nodeId, owner);
+    }
+}
@@ -1,11 +1,74 @@
 package com.app.eaglebank.repository;
 
+import com.app.eaglebank.dto.responses.TransactionResponse;
 import com.app.eaglebank.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-    List<Transaction> findByAccount_AccountNumber(String accountNumber);
+
+    // Newest-first keyset pages, served by the (account_id, timestamp, id) index.
+    // Rows are projected straight into responses so a page costs one statement regardless of size.
+    // The cursor is written as a plain upper bound on timestamp so PostgreSQL prunes newer monthly partitions.
+    @Query("select new com.app.eaglebank.dto.responses.TransactionResponse(" +
+            "t.id, t.amount, t.currency, t.type, t.reference, a.user.id, t.timestamp) " +
+            "from Transaction t join t.account a where a.id = :accountId " +
+            "order by t.timestamp desc, t.id desc")
+    List<TransactionResponse> findFirstPage(@Param("accountId") UUID accountId, Limit limit);
+
+    @Query("select new com.app.eaglebank.dto.responses.TransactionResponse(" +
+            "t.id, t.amount, t.currency, t.type, t.reference, a.user.id, t.timestamp) " +
+            "from Transaction t join t.account a where a.id = :accountId " +
+            "and t.timestamp <= :timestamp and (t.timestamp < :timestamp or t.id < :id) " +
+            "order by t.timestamp desc, t.id desc")
+    List<TransactionResponse> findPageAfter(@Param("accountId") UUID accountId,
+                                            @Param("timestamp") Instant timestamp,
+                                            @Param("id") String id,
+                                            Limit limit);
+
+    // A single posting as its response, for replaying an idempotent request
+    @Query("select new com.app.eaglebank.dto.responses.TransactionResponse(" +
+            "t.id, t.amount, t.currency, t.type, t.reference, a.user.id, t.timestamp) " +
+            "from Transaction t join t.account a where t.id = :id")
+    Optional<TransactionResponse> findResponseById(@Param("id") String id);
+
+    // Full history in chronological order, read through a server-side cursor in fetch-size chunks.
+    // Must be consumed inside a transaction and closed by the caller.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.app.eaglebank.dto.responses.TransactionResponse(" +
+            "t.id, t.amount, t.currency, t.type, t.reference, a.user.id, t.timestamp) " +
+            "from Transaction t join t.account a where a.id = :accountId " +
+            "order by t.timestamp asc, t.id asc")
+    Stream<TransactionResponse> streamByAccountId(@Param("accountId") UUID accountId);
+
+    // Net balance change of postings in (from, to]; a bounded index range scan from the nearest snapshot
+    @Query("select coalesce(sum(case when t.type = 'deposit' then t.amount else -t.amount end), 0) " +
+            "from Transaction t where t.account.id = :accountId and t.timestamp > :from and t.timestamp <= :to")
+    BigDecimal sumDeltaBetween(@Param("accountId") UUID accountId,
+                               @Param("from") Instant from,
+                               @Param("to") Instant to);
+
+    // Net balance change of every posting up to and including the given instant
+    @Query("select coalesce(sum(case when t.type = 'deposit' then t.amount else -t.amount end), 0) " +
+            "from Transaction t where t.account.id = :accountId and t.timestamp <= :to")
+    BigDecimal sumDeltaUpTo(@Param("accountId") UUID accountId, @Param("to") Instant to);
+
+    // Reads only the transactions table so the timestamp index drives the scan
+    @Query("select distinct t.account.id from Transaction t where t.timestamp > :since")
+    List<UUID> findAccountIdsWithPostingsSince(@Param("since") Instant since);
 }
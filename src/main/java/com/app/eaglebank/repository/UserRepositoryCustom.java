@@ -0,0 +1,11 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Served from the second-level cache's natural-id region when the user has been seen before
+    Optional<User> findByEmail(String email);
+}
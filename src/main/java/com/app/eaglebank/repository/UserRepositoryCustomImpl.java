@@ -0,0 +1,30 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * User lookups by email resolved through the Hibernate natural-id cache, so logins and
+ * principal loads for a known user are served without a query.
+ */
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Logins and JWT principal loads look users up without a transaction of their own, and the natural-id
+    // load must not run on a session the shared EntityManager has already closed
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
@@ -0,0 +1,56 @@
+package com.app.eaglebank.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost factor for the current hardware at startup.
+ *
+ * Each cost step doubles the work, so timing a few hashes at a cheap probe cost is enough to
+ * extrapolate the highest cost whose hash stays within the target time. The result never drops
+ * below MIN_STRENGTH, so slow hardware cannot weaken stored hashes, and hashes made at a lower
+ * cost are re-hashed when their user next logs in.
+ */
+
+public final class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    private static final int PROBE_STRENGTH = 6;
+    private static final int PROBE_ROUNDS = 8;
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration targetHashTime) {
+        // The fastest of several runs excludes JIT warm-up and scheduling noise
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        int strength = strengthFor(targetHashTime.toNanos(), fastestNanos);
+        log.info("BCrypt cost {} chosen for a target hash time of {} ms (cost {} took {} us)",
+                strength, targetHashTime.toMillis(), PROBE_STRENGTH, fastestNanos / 1_000);
+        return strength;
+    }
+
+    static int strengthFor(long targetNanos, long probeNanos) {
+        int strength = PROBE_STRENGTH;
+        long nanos = Math.max(probeNanos, 1);
+        while (strength < MAX_STRENGTH && nanos * 2 <= targetNanos) {
+            nanos *= 2;
+            strength++;
+        }
+        return Math.max(strength, MIN_STRENGTH);
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.eaglebank.security;
 
+import com.app.eaglebank.model.User;
 import com.app.eaglebank.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,7 +25,8 @@ import java.io.IOException;
  * Key responsibilities:
  * - Extracts JWT tokens from the Authorization header
  * - Validates token authenticity and expiration
- * - Loads user details from the database
+ * - Loads user details from the database, or from the principal cache for known tokens
+ * - In stateless mode, rebuilds the principal from the token claims without loading the user
  * - Sets up Spring Security authentication context
  * - Bypasses authentication for public endpoints
  *
@@ -39,11 +41,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final boolean statelessPrincipal;
 
     // Constructor injection
-    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService,
+                                   PrincipalCache principalCache, TokenVersionRegistry tokenVersionRegistry,
+                                   boolean statelessPrincipal) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -72,18 +82,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract JWT token by removing "Bearer " prefix (7 characters)
         final String jwt = authHeader.substring(7);
 
-        // Extract user email from JWT token payload
-        final String userEmail = jwtService.extractEmail(jwt);
+        // Verify the token once and read the email from its payload
+        final ParsedToken parsedToken = jwtService.parseToken(jwt);
+        final String userEmail = parsedToken.getEmail();
 
         // Proceed with authentication only if:
         // 1. Email was successfully extracted from token
         // 2. No authentication is currently set in SecurityContext (avoid double processing)
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail); // Loads from DB
-
-            // Validate the JWT token against the user details
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            UserDetails userDetails = statelessPrincipal
+                    ? principalFromClaims(parsedToken)
+                    : loadPrincipal(parsedToken);
 
+            if (userDetails != null) {
                 // Create authentication token with user details and authorities
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
@@ -100,4 +111,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Stateful mode: load the user entity, served from the principal cache for known tokens
+    private UserDetails loadPrincipal(ParsedToken parsedToken) {
+        UserDetails cached = principalCache.get(parsedToken.getEmail(), parsedToken.getToken());
+        if (cached != null) {
+            return cached;
+        }
+
+        // Read before the load, so a user change that lands during it keeps the result out of the cache
+        long generation = principalCache.generation();
+        UserDetails loaded = userDetailsService.loadUserByUsername(parsedToken.getEmail()); // Loads from DB
+
+        // Validate the JWT token against the user details before caching it
+        if (!jwtService.isTokenValid(parsedToken, loaded)) {
+            return null;
+        }
+        if (loaded instanceof User user) {
+            principalCache.put(parsedToken.getToken(), user, parsedToken.getExpiration(), generation);
+        }
+        return loaded;
+    }
+
+    // Stateless mode: build an id-bearing principal from the verified claims
+    private UserDetails principalFromClaims(ParsedToken parsedToken) {
+        if (parsedToken.isExpired()
+                || !tokenVersionRegistry.isCurrent(parsedToken.getUserId(), parsedToken.getTokenVersion())) {
+            return null;
+        }
+
+        User principal = new User();
+        principal.setId(parsedToken.getUserId());
+        principal.setEmail(parsedToken.getEmail());
+        principal.setName(parsedToken.getName());
+        principal.setTokenVersion(parsedToken.getTokenVersion());
+        return principal;
+    }
 }
@@ -0,0 +1,42 @@
+package com.app.eaglebank.security;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A JWT whose signature has already been verified.
+ *
+ * Produced once per request by JwtService.parseToken so the filter can read the subject,
+ * user id, name, token version and expiry without re-verifying and re-parsing the token
+ * for each claim.
+ */
+
+public class ParsedToken {
+
+    private final String token;
+    private final String email;
+    private final UUID userId;
+    private final String name;
+    private final int tokenVersion;
+    private final Date expiration;
+
+    public ParsedToken(String token, String email, UUID userId, String name, int tokenVersion, Date expiration) {
+        this.token = token;
+        this.email = email;
+        this.userId = userId;
+        this.name = name;
+        this.tokenVersion = tokenVersion;
+        this.expiration = expiration;
+    }
+
+    public String getToken() { return token; }
+    public String getEmail() { return email; }
+    public UUID getUserId() { return userId; }
+    public String getName() { return name; }
+    public int getTokenVersion() { return tokenVersion; }
+    public Date getExpiration() { return expiration; }
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -0,0 +1,155 @@
+package com.app.eaglebank.security;
+
+import com.app.eaglebank.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of authenticated principals, grouped by user and keyed by the raw JWT.
+ *
+ * Lets JwtAuthenticationFilter skip the user lookup for tokens it has already validated.
+ * Each token lives no longer than itself, and a user's entry no longer than their last
+ * token. Updating or deleting a user drops all of their tokens in one step. Only an
+ * immutable snapshot of the principal is kept, and every hit gets a fresh User built
+ * from it, so requests never share a mutable entity.
+ *
+ * A principal loaded while the user is being changed may be stale. To catch this, callers
+ * read generation() before loading and pass it to put(), and the put is skipped if any
+ * invalidation happened in between. Hit/miss statistics, counted per token, are published
+ * to Micrometer under the "jwtPrincipals" cache name.
+ */
+
+@Component
+public class PrincipalCache {
+
+    // Email -> token -> principal; replaced as a whole on every change
+    private final Cache<String, Map<String, CachedPrincipal>> cache;
+    private final ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PrincipalCache(@Value("${eaglebank.security.principal-cache.max-size:10000}") long maxSize,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new LastTokenExpiry())
+                .recordStats(() -> stats)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtPrincipals");
+    }
+
+    // Read before loading a principal, and hand the value to put()
+    public long generation() {
+        return invalidations.get();
+    }
+
+    // Returns a fresh principal for this token, or null on a miss
+    public User get(String email, String token) {
+        // asMap() lookups are not counted, so hits and misses are recorded per token here
+        Map<String, CachedPrincipal> tokens = cache.asMap().get(email);
+        CachedPrincipal cached = tokens != null ? tokens.get(token) : null;
+        if (cached == null || cached.expiresAtMillis <= System.currentTimeMillis()) {
+            stats.recordMisses(1);
+            return null;
+        }
+        stats.recordHits(1);
+        return cached.toUser();
+    }
+
+    public void put(String token, User user, Date tokenExpiration, long generation) {
+        CachedPrincipal principal = new CachedPrincipal(user, tokenExpiration.getTime());
+        cache.asMap().compute(user.getEmail(), (email, tokens) -> {
+            // The user changed while this principal was loading, so it may predate the change
+            if (invalidations.get() != generation) {
+                return tokens;
+            }
+            long now = System.currentTimeMillis();
+            Map<String, CachedPrincipal> updated = new HashMap<>();
+            if (tokens != null) {
+                tokens.forEach((cachedToken, cached) -> {
+                    if (cached.expiresAtMillis > now) {
+                        updated.put(cachedToken, cached);
+                    }
+                });
+            }
+            updated.put(token, principal);
+            return Map.copyOf(updated);
+        });
+    }
+
+    // Drop every cached token belonging to the given user
+    public void invalidateUser(String email) {
+        // Bumped first: a put racing with this removal either sees the new generation or is removed by it
+        invalidations.incrementAndGet();
+        cache.invalidate(email);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    // The fields an authenticated request needs, copied out of the entity
+    private static final class CachedPrincipal {
+        private final UUID id;
+        private final String email;
+        private final String name;
+        private final int tokenVersion;
+        private final long expiresAtMillis;
+
+        private CachedPrincipal(User user, long expiresAtMillis) {
+            this.id = user.getId();
+            this.email = user.getEmail();
+            this.name = user.getName();
+            this.tokenVersion = user.getTokenVersion();
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private User toUser() {
+            User principal = new User();
+            principal.setId(id);
+            principal.setEmail(email);
+            principal.setName(name);
+            principal.setTokenVersion(tokenVersion);
+            return principal;
+        }
+    }
+
+    // Keep each user for as long as their latest token
+    private static final class LastTokenExpiry implements Expiry<String, Map<String, CachedPrincipal>> {
+
+        @Override
+        public long expireAfterCreate(String email, Map<String, CachedPrincipal> tokens, long currentTime) {
+            long lastExpiry = 0;
+            for (CachedPrincipal cached : tokens.values()) {
+                lastExpiry = Math.max(lastExpiry, cached.expiresAtMillis);
+            }
+            long remainingMillis = lastExpiry - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String email, Map<String, CachedPrincipal> tokens, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(email, tokens, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String email, Map<String, CachedPrincipal> tokens, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
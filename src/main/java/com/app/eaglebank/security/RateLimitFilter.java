@@ -0,0 +1,94 @@
+package com.app.eaglebank.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting filter for Eagle Bank API
+ *
+ * Runs right after JwtAuthenticationFilter, so authenticated requests are limited per user and
+ * everything else per client address. Login attempts are always limited per address, which
+ * also bounds password guessing against any one account from a single client. A request over
+ * its limit is answered here with 429 and a Retry-After header, before it reaches a controller
+ * or takes a database connection.
+ */
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String TOO_MANY_REQUESTS_BODY =
+            "{\"status\":429,\"error\":\"Too many requests, please retry later\"}";
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimiter rateLimiter, boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Group group = groupOf(request);
+        String client = group == RateLimiter.Group.LOGIN ? request.getRemoteAddr() : clientOf(request);
+        long waitNanos = rateLimiter.tryAcquire(group, client);
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    static RateLimiter.Group groupOf(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.equals("/v1/auth/login")) {
+            return RateLimiter.Group.LOGIN;
+        }
+        // Single and batch postings, listings and exports all hold a database connection
+        if (path.startsWith("/v1/transactions") || (path.startsWith("/v1/accounts/") && path.contains("/transactions"))) {
+            return RateLimiter.Group.TRANSACTIONS;
+        }
+        return RateLimiter.Group.DEFAULT;
+    }
+
+    // The authenticated user, or the client address for requests without one
+    private static String clientOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        // Whole seconds, rounded up so a client that honours it is not rejected again
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(TOO_MANY_REQUESTS_BODY);
+    }
+}
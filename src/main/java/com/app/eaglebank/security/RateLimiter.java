@@ -0,0 +1,123 @@
+package com.app.eaglebank.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket rate limits per client, with separate limits for each endpoint group.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be full again, so taking
+ * a token is one compare-and-set with no lock (the generic cell rate algorithm, which admits
+ * exactly what a token bucket of the same capacity and refill rate would). Buckets live in a
+ * bounded Caffeine cache per group and are dropped after sitting idle; an idle bucket has
+ * refilled anyway, so dropping it changes nothing for the client. Rejections are counted under
+ * "eaglebank.ratelimit.rejected", tagged with the group.
+ */
+
+@Component
+public class RateLimiter {
+
+    public enum Group {
+        LOGIN, TRANSACTIONS, DEFAULT
+    }
+
+    private final Ticker ticker;
+    private final Map<Group, Limit> limits = new EnumMap<>(Group.class);
+    private final Map<Group, Cache<String, AtomicLong>> buckets = new EnumMap<>(Group.class);
+    private final Map<Group, Counter> rejected = new EnumMap<>(Group.class);
+
+    @Autowired
+    public RateLimiter(@Value("${eaglebank.rate-limit.login.capacity:10}") long loginCapacity,
+                       @Value("${eaglebank.rate-limit.login.refill-per-second:0.2}") double loginRefillPerSecond,
+                       @Value("${eaglebank.rate-limit.transactions.capacity:50}") long transactionsCapacity,
+                       @Value("${eaglebank.rate-limit.transactions.refill-per-second:20}") double transactionsRefillPerSecond,
+                       @Value("${eaglebank.rate-limit.default.capacity:100}") long defaultCapacity,
+                       @Value("${eaglebank.rate-limit.default.refill-per-second:50}") double defaultRefillPerSecond,
+                       @Value("${eaglebank.rate-limit.max-clients:100000}") long maxClients,
+                       @Value("${eaglebank.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                       MeterRegistry meterRegistry) {
+        this(Map.of(
+                        Group.LOGIN, Limit.of(loginCapacity, loginRefillPerSecond),
+                        Group.TRANSACTIONS, Limit.of(transactionsCapacity, transactionsRefillPerSecond),
+                        Group.DEFAULT, Limit.of(defaultCapacity, defaultRefillPerSecond)),
+                maxClients, idleTimeout, meterRegistry, Ticker.systemTicker());
+    }
+
+    RateLimiter(Map<Group, Limit> limits, long maxClients, Duration idleTimeout, MeterRegistry meterRegistry, Ticker ticker) {
+        this.ticker = ticker;
+        for (Group group : Group.values()) {
+            Limit limit = limits.get(group);
+            // Evicting a bucket before it has refilled would hand the client a fresh burst
+            Duration idle = idleTimeout.compareTo(limit.refillTime()) > 0 ? idleTimeout : limit.refillTime();
+            Cache<String, AtomicLong> cache = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(idle)
+                    .ticker(ticker)
+                    .recordStats()
+                    .build();
+            String tag = group.name().toLowerCase(Locale.ROOT);
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "rateLimitBuckets", "group", tag);
+
+            this.limits.put(group, limit);
+            this.buckets.put(group, cache);
+            this.rejected.put(group, Counter.builder("eaglebank.ratelimit.rejected")
+                    .description("Requests turned away with 429 because the client's bucket was empty")
+                    .tag("group", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    // Takes a token from the client's bucket; returns 0 if one was available, otherwise the nanoseconds until one is
+    public long tryAcquire(Group group, String client) {
+        Limit limit = limits.get(group);
+        AtomicLong fullAt = buckets.get(group).get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = ticker.read();
+        while (true) {
+            long current = fullAt.get();
+            // Taking a token pushes the time the bucket is full again one interval further out
+            long next = Math.max(current, now) + limit.intervalNanos();
+            long excess = next - now - limit.burstNanos();
+            if (excess > 0) {
+                rejected.get(group).increment();
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // capacity tokens, one added every intervalNanos
+    record Limit(long capacity, long intervalNanos) {
+
+        static Limit of(long capacity, double refillPerSecond) {
+            if (capacity < 1 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+            }
+            return new Limit(capacity, Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond)));
+        }
+
+        long burstNanos() {
+            return capacity * intervalNanos;
+        }
+
+        // Time for an empty bucket to fill
+        Duration refillTime() {
+            return Duration.ofNanos(burstNanos());
+        }
+    }
+}
@@ -17,15 +17,18 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final PasswordEncoder passwordEncoder;
 
     // Constructor for dependency injection
     public SecurityConfig(
             CustomUserDetailsService userDetailsService,
             JwtAuthenticationFilter jwtAuthFilter,
+            RateLimitFilter rateLimitFilter,
             PasswordEncoder passwordEncoder) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -41,7 +44,8 @@ public class SecurityConfig {
                         .anyRequest().authenticated()               // Secure all other endpoints
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class); // Limit per user once the token is resolved
 
         return http.build();
     }
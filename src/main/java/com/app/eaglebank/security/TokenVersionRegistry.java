@@ -0,0 +1,64 @@
+package com.app.eaglebank.security;
+
+import com.app.eaglebank.repository.UserRepository;
+import com.app.eaglebank.service.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Revocation check used when principals are rebuilt from JWT claims.
+ *
+ * Keeps the current token version of recently seen users in memory, so verifying that a
+ * token has not been revoked costs a map lookup instead of loading the user row. On a miss
+ * only the version column is read, through CacheLoads. Deleted users have no version and are
+ * always rejected.
+ */
+
+@Component
+public class TokenVersionRegistry {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<UUID, Integer> versions;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${eaglebank.security.token-versions.max-size:100000}") long maxSize,
+                                @Value("${eaglebank.security.token-versions.ttl:30m}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions.synchronous(), "tokenVersions");
+    }
+
+    // True if the user still exists and has not revoked tokens of this version
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        Integer current = currentVersion(userId);
+        return current != null && current == tokenVersion;
+    }
+
+    public void evict(UUID userId) {
+        versions.synchronous().invalidate(userId);
+    }
+
+    public void evictAll() {
+        versions.synchronous().invalidateAll();
+    }
+
+    // An evict during the load discards its result
+    private Integer currentVersion(UUID userId) {
+        return CacheLoads.load(versions, userId, () -> userRepository.findTokenVersionById(userId).orElse(null));
+    }
+}
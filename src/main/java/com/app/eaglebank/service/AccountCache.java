@@ -0,0 +1,144 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded, time-limited cache of accounts keyed by account number and by owning user.
+ *
+ * Serves the account lookups made on every read request without touching the database.
+ * Postings write the new balance through once their transaction commits, and new accounts
+ * drop the owner's cached list, so this instance never serves a balance older than its own
+ * writes. Changes made by other instances are evicted by CacheInvalidationBus, and at the
+ * latest show up once the entry expires.
+ *
+ * Entries are detached copies and callers receive copies of them, so neither a persistence
+ * context nor a caller changing a returned account can alter the cache.
+ * Hit/miss and eviction statistics are published under the "accountsByNumber" and
+ * "accountsByUser" cache names.
+ */
+
+@Component
+public class AccountCache {
+
+    private final AccountRepository accountRepository;
+    private final AsyncCache<String, Account> accountsByNumber;
+    private final AsyncCache<UUID, List<String>> accountNumbersByUser;
+
+    public AccountCache(AccountRepository accountRepository,
+                        @Value("${eaglebank.accounts.cache.max-size:100000}") long maxSize,
+                        @Value("${eaglebank.accounts.cache.ttl:5m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.accountsByNumber = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.accountNumbersByUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, accountsByNumber.synchronous(), "accountsByNumber");
+        CaffeineCacheMetrics.monitor(meterRegistry, accountNumbersByUser.synchronous(), "accountsByUser");
+    }
+
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        Account cached = CacheLoads.load(accountsByNumber, accountNumber,
+                () -> accountRepository.findByAccountNumber(accountNumber).map(AccountCache::copy).orElse(null));
+        return Optional.ofNullable(cached).map(AccountCache::copy);
+    }
+
+    public List<Account> findByUser(User user) {
+        List<String> numbers = CacheLoads.load(accountNumbersByUser, user.getId(), () -> loadAccountNumbers(user));
+
+        List<Account> accounts = new ArrayList<>(numbers.size());
+        for (String number : numbers) {
+            Account cached = accountsByNumber.synchronous().getIfPresent(number);
+            if (cached == null) {
+                // One of the accounts was evicted; reloading the whole list is a single query
+                accountNumbersByUser.synchronous().invalidate(user.getId());
+                return copies(accountRepository.findByUser(user));
+            }
+            accounts.add(copy(cached));
+        }
+        return accounts;
+    }
+
+    // Record an account's new state once the surrounding transaction commits (immediately if there is none)
+    public void putAfterCommit(Account account) {
+        Account snapshot = copy(account);
+        afterCommit(() -> accountsByNumber.put(snapshot.getAccountNumber(), CompletableFuture.completedFuture(snapshot)));
+    }
+
+    // A new account changes the owner's list, which is reloaded on next use
+    public void accountOpened(Account account) {
+        putAfterCommit(account);
+        UUID userId = account.getUser().getId();
+        afterCommit(() -> accountNumbersByUser.synchronous().invalidate(userId));
+    }
+
+    // Another instance changed this account
+    public void evict(String accountNumber) {
+        accountsByNumber.synchronous().invalidate(accountNumber);
+    }
+
+    // Another instance opened an account for this user
+    public void evictUser(UUID userId) {
+        accountNumbersByUser.synchronous().invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        accountsByNumber.synchronous().invalidateAll();
+        accountNumbersByUser.synchronous().invalidateAll();
+    }
+
+    private List<String> loadAccountNumbers(User user) {
+        List<String> numbers = new ArrayList<>();
+        for (Account account : accountRepository.findByUser(user)) {
+            // Never replace an entry a posting may have written through since the query ran
+            accountsByNumber.asMap().putIfAbsent(account.getAccountNumber(), CompletableFuture.completedFuture(copy(account)));
+            numbers.add(account.getAccountNumber());
+        }
+        return List.copyOf(numbers);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static List<Account> copies(List<Account> accounts) {
+        return accounts.stream().map(AccountCache::copy).toList();
+    }
+
+    // Shallow copy; the owning user is shared and only its id is ever read
+    private static Account copy(Account account) {
+        return new Account(account);
+    }
+}
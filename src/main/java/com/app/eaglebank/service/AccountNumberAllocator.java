@@ -0,0 +1,78 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.repository.AccountRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates unique account numbers without retries or coordination between instances.
+ *
+ * Each instance reserves blocks of ordinals from the account_number_seq database sequence and
+ * hands them out from memory, so only one in every BLOCK_SIZE allocations touches the sequence.
+ * Ordinals are mapped onto the six-digit suffix through a fixed permutation, so numbers are
+ * unique by construction but do not reveal how many accounts were opened or in what order.
+ */
+
+@Component
+public class AccountNumberAllocator {
+
+    // Must match the increment of account_number_seq
+    static final int BLOCK_SIZE = 100;
+
+    static final String PREFIX = "01";
+    static final int SUFFIX_SPACE = 1_000_000;
+
+    // n -> (MULTIPLIER * n + OFFSET) mod SUFFIX_SPACE is a bijection because MULTIPLIER is coprime to 10^6
+    private static final long MULTIPLIER = 738_169;
+    private static final long OFFSET = 271_828;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountRepository accountRepository;
+
+    // Held across the sequence call, so a ReentrantLock rather than a monitor (see CacheLoads)
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextOrdinal;
+    private long blockEnd;
+
+    public AccountNumberAllocator(JdbcTemplate jdbcTemplate, AccountRepository accountRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountRepository = accountRepository;
+    }
+
+    public String nextAccountNumber() {
+        while (true) {
+            String candidate = toAccountNumber(nextOrdinal());
+
+            // Accounts opened before the allocator carry random numbers; step over the few it may meet
+            if (!accountRepository.existsByAccountNumber(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private long nextOrdinal() {
+        lock.lock();
+        try {
+            if (nextOrdinal == blockEnd) {
+                Long blockStart = jdbcTemplate.queryForObject("select nextval('account_number_seq')", Long.class);
+                if (blockStart == null || blockStart >= SUFFIX_SPACE) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No account numbers left to allocate");
+                }
+                nextOrdinal = blockStart;
+                blockEnd = Math.min(blockStart + BLOCK_SIZE, SUFFIX_SPACE);
+            }
+            return nextOrdinal++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static String toAccountNumber(long ordinal) {
+        long suffix = (MULTIPLIER * ordinal + OFFSET) % SUFFIX_SPACE;
+        return PREFIX + String.format("%06d", suffix);
+    }
+}
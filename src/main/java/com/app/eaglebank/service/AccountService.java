@@ -6,13 +6,13 @@ import com.app.eaglebank.model.Account;
 import com.app.eaglebank.model.User;
 import com.app.eaglebank.repository.AccountRepository;
 import com.app.eaglebank.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Service class responsible for managing bank account operations in the Eagle Bank application.
@@ -25,7 +25,8 @@ import java.util.Random;
  * - Creating new bank accounts with auto-generated account numbers
  * - Retrieving user-specific accounts with proper authorization checks
  * - Validating account ownership and access permissions
- * - Generating unique account numbers with standardized format
+ * - Assigning unique account numbers from the AccountNumberAllocator
+ * - Serving account lookups from the AccountCache
  */
 
 @Service
@@ -33,10 +34,18 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AccountCache accountCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AccountService(AccountRepository accountRepository, UserRepository userRepository) {
+    public AccountService(AccountRepository accountRepository, UserRepository userRepository,
+                          AccountNumberAllocator accountNumberAllocator, AccountCache accountCache,
+                          ApplicationEventPublisher eventPublisher) {
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.accountCache = accountCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public Account createAccount(CreateAccountRequest request, User user) {
@@ -44,19 +53,16 @@ public class AccountService {
         Account account = new Account();
         account.setName(request.getName());
         account.setAccountType(request.getAccountType());
-        account.setAccountNumber(generateAccountNumber());
+        account.setAccountNumber(accountNumberAllocator.nextAccountNumber());
         account.setSortCode("10-10-10");
         account.setCurrency("GBP");
         account.setUser(user);
         account.setBalance(BigDecimal.ZERO); // Always 0 on creation
 
-        return accountRepository.save(account);
-    }
-
-    private String generateAccountNumber() {
-        // Generates a 6-digit random number and prefixes it with "01"
-        String randomDigits = String.format("%06d", new Random().nextInt(1_000_000));
-        return "01" + randomDigits;
+        Account saved = accountRepository.save(account);
+        accountCache.accountOpened(saved);
+        eventPublisher.publishEvent(EntityChangedEvent.accountOpened(saved));
+        return saved;
     }
 
     public List<Account> getAccountsByUserEmail(String email) {
@@ -68,12 +74,17 @@ public class AccountService {
                 ));
 
         // Return all accounts for the authenticated user
-        return accountRepository.findByUser(user);
+        return getAccountsByUser(user);
+    }
+
+    public List<Account> getAccountsByUser(User user) {
+        // The authenticated principal already identifies the owner, so no user lookup is needed
+        return accountCache.findByUser(user);
     }
 
     public Account getUserAccountByAccountNumber(String accountNumber, User user) {
         // Find account by number or throw not found exception
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        Account account = accountCache.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         // Verify account ownership to prevent unauthorized access
@@ -2,6 +2,7 @@ package com.app.eaglebank.service;
 
 import com.app.eaglebank.model.User;
 import com.app.eaglebank.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -10,7 +11,8 @@ import org.springframework.stereotype.Service;
  *
  * Handles secure user authentication using email and password credentials with proper
  * password hashing verification. Implements security best practices by providing generic
- * error messages to prevent user enumeration attacks.
+ * error messages to prevent user enumeration attacks. Stored hashes made with an older
+ * algorithm or a lower cost are replaced in place on the user's next successful login.
  */
 
 @Service
@@ -22,9 +24,14 @@ public class AuthService {
     // Used to hash and verify passwords securely
     private final PasswordEncoder passwordEncoder;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    // Tells the other instances to drop their cached copy of a user whose hash was upgraded
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     // Authenticates a user by email and password
@@ -39,6 +46,14 @@ public class AuthService {
             throw new RuntimeException("Invalid credentials");
         }
 
+        // Re-hash with the current algorithm and cost while the raw password is at hand
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            user = userRepository.save(user);
+            // Forwarded once the save has committed, as for any other change to the user
+            eventPublisher.publishEvent(EntityChangedEvent.userUpdated(user));
+        }
+
         // Return the authenticated user object
         return user;
     }
@@ -0,0 +1,108 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.BalanceSnapshot;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.ArchivedTransactionRepository;
+import com.app.eaglebank.repository.BalanceSnapshotRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class responsible for materialized balance snapshots and point-in-time balances.
+ *
+ * A snapshot is written every N postings to an account and once a day for every account that
+ * saw postings. A historical balance is then the nearest snapshot plus the postings since it,
+ * so the work per query is bounded by the snapshot interval rather than by the account's age.
+ */
+
+@Service
+public class BalanceSnapshotService {
+
+    // Postings still committing when the daily job runs must not fall behind its snapshot
+    private static final Duration SETTLE_MARGIN = Duration.ofMinutes(1);
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotInterval;
+
+    // Postings since the last snapshot per account; a lost count only delays the next snapshot
+    private final Cache<UUID, AtomicInteger> postingsSinceSnapshot;
+
+    public BalanceSnapshotService(BalanceSnapshotRepository snapshotRepository,
+                                  TransactionRepository transactionRepository,
+                                  ArchivedTransactionRepository archivedTransactionRepository,
+                                  AccountRepository accountRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${eaglebank.snapshots.every-postings:100}") int snapshotInterval,
+                                  @Value("${eaglebank.snapshots.tracked-accounts:100000}") long trackedAccounts) {
+        this.snapshotRepository = snapshotRepository;
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotInterval = snapshotInterval;
+        this.postingsSinceSnapshot = Caffeine.newBuilder()
+                .maximumSize(trackedAccounts)
+                .build();
+    }
+
+    // Called inside the posting's database transaction, after its balance update, while the account stripe is held
+    public void recordPostings(Account account, int postings, Instant postedAt) {
+        AtomicInteger counter = postingsSinceSnapshot.get(account.getId(), id -> new AtomicInteger());
+        if (counter.addAndGet(postings) < snapshotInterval) {
+            return;
+        }
+        counter.set(0);
+
+        // Read the balance as this transaction left it, including postings committed by other instances
+        BigDecimal balance = accountRepository.findBalanceById(account.getId());
+        snapshotRepository.save(new BalanceSnapshot(account, postedAt, balance));
+    }
+
+    @Transactional
+    public BigDecimal getBalanceAt(Account account, Instant at) {
+        UUID accountId = account.getId();
+
+        // Replay only the postings between the nearest snapshot and the requested instant
+        // Replayed postings may sit in either tier
+        return snapshotRepository.findFirstByAccount_IdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, at)
+                .map(snapshot -> snapshot.getBalance()
+                        .add(transactionRepository.sumDeltaBetween(accountId, snapshot.getAsOf(), at))
+                        .add(archivedTransactionRepository.sumDeltaBetween(accountId, snapshot.getAsOf(), at)))
+                .orElseGet(() -> transactionRepository.sumDeltaUpTo(accountId, at)
+                        .add(archivedTransactionRepository.sumDeltaUpTo(accountId, at)));
+    }
+
+    @Scheduled(cron = "${eaglebank.snapshots.daily-cron:0 15 0 * * *}")
+    public void snapshotActiveAccounts() {
+        Instant asOf = Instant.now().minus(SETTLE_MARGIN);
+        List<UUID> accountIds = transactionRepository.findAccountIdsWithPostingsSince(asOf.minus(Duration.ofDays(1)));
+
+        // One short transaction per account so a large run never holds a connection for long
+        for (UUID accountId : accountIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Account account = accountRepository.getReferenceById(accountId);
+                snapshotRepository.save(new BalanceSnapshot(account, asOf, getBalanceAt(account, asOf)));
+            });
+            postingsSinceSnapshot.invalidate(accountId);
+        }
+    }
+}
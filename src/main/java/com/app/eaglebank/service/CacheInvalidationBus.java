@@ -0,0 +1,297 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.config.DatabasePlatform;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.security.PrincipalCache;
+import com.app.eaglebank.security.TokenVersionRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the in-process caches of every instance in step over PostgreSQL LISTEN/NOTIFY.
+ *
+ * Committed EntityChangedEvents are queued and sent by a single publisher thread, which
+ * coalesces bursts (such as many postings to one account) into a few NOTIFY messages. Each
+ * message carries the sending instance's id and the next number in its sequence, and an idle
+ * publisher sends a heartbeat with its latest number. A listener thread on every instance
+ * evicts the named users and accounts from the principal, token-version, account and
+ * Hibernate second-level caches. Any gap in an instance's sequence, a failed send, a full
+ * queue or a lost listener connection means a change may have been missed, and the receiving
+ * instance flushes all of those caches instead.
+ *
+ * The listener holds one dedicated connection outside the pool. On databases other than
+ * PostgreSQL (such as the H2 test database) the bus does nothing.
+ */
+
+@Component
+public class CacheInvalidationBus implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "eaglebank_cache_invalidation";
+
+    // Keeps each payload well inside PostgreSQL's 8000 byte NOTIFY limit
+    static final int MAX_CHANGES_PER_MESSAGE = 40;
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int POLL_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final DataSourceProperties dataSourceProperties;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final AccountCache accountCache;
+    private final Cache secondLevelCache;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration heartbeatInterval;
+    private final Counter missedNotifications;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final BlockingQueue<EntityChangedEvent> pending = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+
+    // Last sequence number seen from each other instance; only touched by the listener thread
+    private final Map<String, Long> lastSequences = new HashMap<>();
+
+    private volatile boolean active;
+    private Thread publisher;
+    private Thread listener;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                DatabasePlatform databasePlatform,
+                                DataSourceProperties dataSourceProperties,
+                                PrincipalCache principalCache,
+                                TokenVersionRegistry tokenVersionRegistry,
+                                AccountCache accountCache,
+                                EntityManagerFactory entityManagerFactory,
+                                ObjectMapper objectMapper,
+                                @Value("${eaglebank.cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${eaglebank.cache.invalidation.heartbeat:10s}") Duration heartbeatInterval,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.dataSourceProperties = dataSourceProperties;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.accountCache = accountCache;
+        this.secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.heartbeatInterval = heartbeatInterval;
+        this.missedNotifications = Counter.builder("eaglebank.cache.invalidation.missed")
+                .description("Times this instance flushed its caches because an invalidation may have been missed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || !databasePlatform.isPostgres()) {
+            return;
+        }
+        active = true;
+        publisher = Thread.ofPlatform().name("cache-invalidation-publisher").daemon(true).start(this::publishLoop);
+        listener = Thread.ofPlatform().name("cache-invalidation-listener").daemon(true).start(this::listenLoop);
+    }
+
+    // Runs after commit, so other instances never hear of a change that was rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!active) {
+            return;
+        }
+        if (!pending.offer(event)) {
+            // Spend a sequence number without sending it, so every other instance sees the gap and flushes
+            sequence.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        active = false;
+        if (publisher != null) {
+            publisher.interrupt();
+        }
+    }
+
+    private void publishLoop() {
+        List<EntityChangedEvent> drained = new ArrayList<>();
+        while (active) {
+            try {
+                EntityChangedEvent first = pending.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    send(List.of());
+                    continue;
+                }
+                drained.add(first);
+                pending.drainTo(drained);
+                publish(List.copyOf(new LinkedHashSet<>(drained)));
+                drained.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void publish(List<EntityChangedEvent> changes) {
+        for (int from = 0; from < changes.size(); from += MAX_CHANGES_PER_MESSAGE) {
+            send(changes.subList(from, Math.min(from + MAX_CHANGES_PER_MESSAGE, changes.size())));
+        }
+    }
+
+    // An empty message is a heartbeat: it repeats the latest sequence number instead of taking the next one
+    private void send(List<EntityChangedEvent> changes) {
+        long number = changes.isEmpty() ? sequence.get() : sequence.incrementAndGet();
+        try {
+            String payload = objectMapper.writeValueAsString(new Message(nodeId, number, changes));
+            jdbcTemplate.query("select pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, CHANNEL, payload);
+        } catch (JsonProcessingException | DataAccessException e) {
+            // The number is spent, so the other instances flush once they see the gap
+            log.warn("Could not publish cache invalidation {}", number, e);
+        }
+    }
+
+    private void listenLoop() {
+        boolean firstConnection = true;
+        while (active) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("listen " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                // Whatever was published while this instance was not listening has been missed
+                lastSequences.clear();
+                if (!firstConnection) {
+                    flushAll();
+                }
+                firstConnection = false;
+
+                while (active) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!active) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection; reconnecting", e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable cache invalidation; flushing caches", e);
+            flushAll();
+            return;
+        }
+        if (nodeId.equals(message.origin())) {
+            return;
+        }
+
+        // The first message from an instance only sets the baseline for its sequence
+        Long last = lastSequences.get(message.origin());
+        boolean missed = last != null && (message.changes().isEmpty()
+                ? message.sequence() > last
+                : message.sequence() != last + 1);
+        lastSequences.merge(message.origin(), message.sequence(), Math::max);
+
+        if (missed) {
+            log.warn("Missed cache invalidations from instance {} (last {}, got {}); flushing caches",
+                    message.origin(), last, message.sequence());
+            missedNotifications.increment();
+            flushAll();
+            return;
+        }
+        message.changes().forEach(this::apply);
+    }
+
+    private void apply(EntityChangedEvent change) {
+        switch (change.kind()) {
+            case USER_UPDATED -> evictUser(change);
+            case USER_DELETED -> {
+                evictUser(change);
+                // The email may be registered again, so its resolution to the old id must go
+                secondLevelCache.evictNaturalIdData(User.class);
+            }
+            case ACCOUNT_UPDATED -> {
+                accountCache.evict(change.key());
+                secondLevelCache.evictEntityData(Account.class, change.id());
+            }
+            case ACCOUNT_OPENED -> {
+                accountCache.evictUser(change.id());
+                // The owner's cached account list no longer matches
+                secondLevelCache.evictDefaultQueryRegion();
+            }
+        }
+    }
+
+    private void evictUser(EntityChangedEvent change) {
+        principalCache.invalidateUser(change.key());
+        tokenVersionRegistry.evict(change.id());
+        secondLevelCache.evictEntityData(User.class, change.id());
+    }
+
+    private void flushAll() {
+        principalCache.invalidateAll();
+        tokenVersionRegistry.evictAll();
+        accountCache.invalidateAll();
+        secondLevelCache.evictAllRegions();
+    }
+
+    record Message(String origin, long sequence, List<EntityChangedEvent> changes) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.app.eaglebank.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache-miss loading for the in-process Caffeine caches that are filled from the database.
+ *
+ * Caffeine runs a synchronous loader inside its internal lock for the key, and a JDBC call made
+ * there would pin a virtual thread to its carrier for the length of the query. Here the caller
+ * that misses installs an incomplete future instead and runs the loader after the mapping is in
+ * place, outside any lock. Concurrent misses for the key wait on that future, so they still
+ * share one load. The same reasoning applies to any blocking call made under a lock, which is
+ * why such locks in this application are ReentrantLocks rather than monitors.
+ */
+
+public final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    // A put or invalidate made while the load is running replaces or discards its result
+    public static <K, V> V load(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> current = cache.get(key, (k, executor) -> loading);
+        if (current != loading) {
+            return current.join();
+        }
+
+        try {
+            V value = loader.get();
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
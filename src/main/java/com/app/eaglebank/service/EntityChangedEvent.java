@@ -0,0 +1,42 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+
+import java.util.UUID;
+
+/**
+ * A change to a user or account that other instances must drop from their caches.
+ *
+ * Published as an application event by the service making the change, which still updates
+ * its own instance's caches directly; CacheInvalidationBus forwards the event to the other
+ * instances once the surrounding transaction commits. The id and key are whatever the
+ * receiving caches are keyed by: user id and email, account id and account number, or the
+ * owner's id and the new account number when an account is opened.
+ */
+
+public record EntityChangedEvent(Kind kind, UUID id, String key) {
+
+    public enum Kind {
+        USER_UPDATED,
+        USER_DELETED,
+        ACCOUNT_UPDATED,
+        ACCOUNT_OPENED
+    }
+
+    public static EntityChangedEvent userUpdated(User user) {
+        return new EntityChangedEvent(Kind.USER_UPDATED, user.getId(), user.getEmail());
+    }
+
+    public static EntityChangedEvent userDeleted(User user) {
+        return new EntityChangedEvent(Kind.USER_DELETED, user.getId(), user.getEmail());
+    }
+
+    public static EntityChangedEvent accountUpdated(Account account) {
+        return new EntityChangedEvent(Kind.ACCOUNT_UPDATED, account.getId(), account.getAccountNumber());
+    }
+
+    public static EntityChangedEvent accountOpened(Account account) {
+        return new EntityChangedEvent(Kind.ACCOUNT_OPENED, account.getUser().getId(), account.getAccountNumber());
+    }
+}
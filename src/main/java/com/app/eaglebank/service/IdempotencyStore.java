@@ -0,0 +1,178 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.dto.responses.TransactionResponse;
+import com.app.eaglebank.exception.BadRequestException;
+import com.app.eaglebank.exception.ConflictException;
+import com.app.eaglebank.repository.IdempotencyKeyRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Remembers the outcome of transaction POSTs sent with an Idempotency-Key.
+ *
+ * Keys are stored per user in the idempotency_key table, in the same database transaction as
+ * the posting they belong to, so a key is only ever spent on a posting that committed. A
+ * bounded in-memory LRU of recent outcomes answers most retries with one hash and one map
+ * lookup; older or other instances' keys are replayed from the table. Each key is bound to a
+ * hash of the request it was first used with, and reusing it for a different request is
+ * rejected with 422. Keys older than the retention period are purged in batches.
+ */
+
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    static final int MAX_KEY_LENGTH = 255;
+    static final int PURGE_BATCH_SIZE = 1000;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionRepository transactionRepository;
+    private final Cache<Key, Outcome> recent;
+    private final Duration retention;
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                            TransactionRepository transactionRepository,
+                            @Value("${eaglebank.transactions.idempotency.retention:24h}") Duration retention,
+                            @Value("${eaglebank.transactions.idempotency.cache-size:100000}") long cacheSize,
+                            MeterRegistry meterRegistry) {
+        this(idempotencyKeyRepository, transactionRepository, retention, cacheSize, meterRegistry, Clock.systemUTC());
+    }
+
+    IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository, TransactionRepository transactionRepository,
+                     Duration retention, long cacheSize, MeterRegistry meterRegistry, Clock clock) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionRepository = transactionRepository;
+        this.retention = retention;
+        this.clock = clock;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotencyKeys");
+    }
+
+    public static void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    // Identifies the request a key was first used with; the same posting always hashes the same
+    public static String fingerprint(String accountNumber, CreateTransactionRequest request) {
+        String canonical = String.join("\n",
+                accountNumber,
+                String.valueOf(request.getType()).toLowerCase(Locale.ROOT),
+                request.getAmount() == null ? "null" : request.getAmount().stripTrailingZeros().toPlainString(),
+                String.valueOf(request.getCurrency()),
+                String.valueOf(request.getReference()));
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Outcome of a request this instance has recently answered for the key, if any
+    public Optional<TransactionResponse> findRecent(UUID userId, String idempotencyKey, String fingerprint) {
+        Outcome outcome = recent.getIfPresent(new Key(userId, idempotencyKey));
+        if (outcome == null) {
+            return Optional.empty();
+        }
+        checkSameRequest(outcome.fingerprint(), fingerprint);
+        return Optional.of(outcome.response());
+    }
+
+    // Spends the key inside the posting's database transaction; throws DuplicateKeyException if it was already used
+    public void record(UUID userId, String idempotencyKey, String fingerprint, String transactionId) {
+        idempotencyKeyRepository.insert(userId, idempotencyKey, fingerprint, transactionId, clock.instant());
+    }
+
+    // Cache the response once the posting commits (immediately if there is no transaction)
+    public void rememberAfterCommit(UUID userId, String idempotencyKey, String fingerprint, TransactionResponse response) {
+        Key key = new Key(userId, idempotencyKey);
+        Outcome outcome = new Outcome(fingerprint, response);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recent.put(key, outcome);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recent.put(key, outcome);
+            }
+        });
+    }
+
+    // Original response for a key that is already stored
+    public TransactionResponse replay(UUID userId, String idempotencyKey, String fingerprint) {
+        IdempotencyKeyRepository.StoredKey stored = idempotencyKeyRepository.find(userId, idempotencyKey)
+                .orElseThrow(() -> new ConflictException("A request with this Idempotency-Key is still in progress"));
+        checkSameRequest(stored.requestHash(), fingerprint);
+
+        TransactionResponse response = transactionRepository.findResponseById(stored.transactionId())
+                .orElseThrow(() -> new IllegalStateException("Transaction " + stored.transactionId() + " is missing"));
+        recent.put(new Key(userId, idempotencyKey), new Outcome(fingerprint, response));
+        return response;
+    }
+
+    // Returns the number of keys purged
+    @Scheduled(cron = "${eaglebank.transactions.idempotency.purge-cron:0 */10 * * * *}")
+    public long purgeExpired() {
+        Instant cutoff = clock.instant().minus(retention);
+        long purged = 0;
+        int deleted;
+        // Small batches, each committed on its own, keep row locks and undo short while postings continue
+        do {
+            deleted = idempotencyKeyRepository.deleteCreatedBefore(cutoff, PURGE_BATCH_SIZE);
+            purged += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+
+        if (purged > 0) {
+            log.info("Purged {} idempotency keys created before {}", purged, cutoff);
+        }
+        return purged;
+    }
+
+    private static void checkSameRequest(String storedFingerprint, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key has already been used for a different request");
+        }
+    }
+
+    private record Key(UUID userId, String idempotencyKey) {
+    }
+
+    private record Outcome(String fingerprint, TransactionResponse response) {
+    }
+}
@@ -1,13 +1,21 @@
 package com.app.eaglebank.service;
 
+import com.app.eaglebank.security.ParsedToken;
 import io.jsonwebtoken.Claims;
 import com.app.eaglebank.model.User;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Service class responsible for JWT token management in the Eagle Bank application.
@@ -20,45 +28,68 @@ import java.util.Date;
 @Service
 public class JwtService {
 
+    private static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS256;
+
     @Value("${SECRET_KEY}")
     private String secretKey;
 
     // Token valid for 30 min
     private final long EXPIRATION_TIME = 1000 * 60 * 30;
 
+    // Built once from the secret; JwtParser is immutable and thread-safe
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        // The secret is base64-encoded, matching how the String-keyed jjwt API decoded it
+        signingKey = new SecretKeySpec(Decoders.BASE64.decode(secretKey), SIGNATURE_ALGORITHM.getJcaName());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     public String generateToken(User user) {
         return Jwts.builder()
                 .setSubject(user.getEmail())
                 .claim("userId", user.getId())
                 .claim("name", user.getName())
+                .claim("ver", user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .signWith(signingKey, SIGNATURE_ALGORITHM)
                 .compact();
     }
 
-    // Extract email from token
-    public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+    // Verify the signature once and keep the claims the filter needs
+    public ParsedToken parseToken(String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        String userId = claims.get("userId", String.class);
+        Integer tokenVersion = claims.get("ver", Integer.class);
+        return new ParsedToken(
+                token,
+                claims.getSubject(),
+                userId != null ? UUID.fromString(userId) : null,
+                claims.get("name", String.class),
+                tokenVersion != null ? tokenVersion : 0, // Tokens issued before versioning count as version 0
+                claims.getExpiration()
+        );
     }
 
-    //  Validate token
-    public boolean isTokenValid(String token, org.springframework.security.core.userdetails.UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    // Extract email from token
+    public String extractEmail(String token) {
+        return parseToken(token).getEmail();
     }
 
-    //  Check expiration
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    //  Validate an already parsed token against the loaded user
+    public boolean isTokenValid(ParsedToken token, UserDetails userDetails) {
+        // Tokens issued before the user's last revocation are rejected in both auth modes
+        boolean versionMatches = !(userDetails instanceof User user) || user.getTokenVersion() == token.getTokenVersion();
+        return token.getEmail().equals(userDetails.getUsername()) && versionMatches && !token.isExpired();
     }
 
-    //  Extract all claims from token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(secretKey)
-                .parseClaimsJws(token)
-                .getBody();
+    //  Validate token
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(parseToken(token), userDetails);
     }
 }
-
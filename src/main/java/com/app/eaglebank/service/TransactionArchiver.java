@@ -0,0 +1,145 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.config.DatabasePlatform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Moves aged transactions from the hot transactions table into transactions_archive.
+ *
+ * Everything before the first day of the month N months back is moved, one UTC day per
+ * database transaction, with the copy and the delete committing together so a row is always
+ * in exactly one tier. Reads go through both tiers, newest first, so the move is invisible
+ * to the history, export and balance endpoints.
+ *
+ * On PostgreSQL each run holds a session-level advisory lock, so when several instances fire
+ * the same schedule only one of them archives and the rest skip the run. The copy ignores rows
+ * already in the archive, so a window that was copied but not deleted (or an instance without
+ * the lock) cannot fail the run on a duplicate key.
+ */
+
+@Component
+public class TransactionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private static final String COPY_SQL =
+            "insert into transactions_archive (id, amount, currency, type, reference, timestamp, account_id) " +
+            "select id, amount, currency, type, reference, timestamp, account_id from transactions " +
+            "where timestamp >= ? and timestamp < ? " +
+            "on conflict do nothing";
+
+    private static final String DELETE_SQL = "delete from transactions where timestamp >= ? and timestamp < ?";
+
+    // Advisory lock key shared by every instance; the ASCII for "EBARCHIV"
+    private static final long ARCHIVE_LOCK_KEY = 0x4542415243484956L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final Clock clock;
+    private final int archiveAfterMonths;
+
+    @Autowired
+    public TransactionArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               DatabasePlatform databasePlatform,
+                               @Value("${eaglebank.transactions.archive.after-months:12}") int archiveAfterMonths) {
+        this(jdbcTemplate, transactionManager, databasePlatform, Clock.systemUTC(), archiveAfterMonths);
+    }
+
+    TransactionArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        DatabasePlatform databasePlatform, Clock clock, int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databasePlatform = databasePlatform;
+        this.clock = clock;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    // Returns the number of transactions moved
+    @Scheduled(cron = "${eaglebank.transactions.archive.cron:0 30 1 * * *}")
+    public long archiveOldTransactions() {
+        // 0 keeps every transaction in the hot table
+        if (archiveAfterMonths <= 0) {
+            return 0;
+        }
+        if (!databasePlatform.isPostgres()) {
+            return archive();
+        }
+
+        // Held on its own connection for the whole run, and released by PostgreSQL if that connection drops
+        Long moved = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            if (!advisoryLock(connection.prepareStatement("select pg_try_advisory_lock(?)"))) {
+                log.info("Skipping transaction archiving, another instance is running it");
+                return 0L;
+            }
+            try {
+                return archive();
+            } finally {
+                advisoryLock(connection.prepareStatement("select pg_advisory_unlock(?)"));
+            }
+        });
+        return moved != null ? moved : 0;
+    }
+
+    private long archive() {
+        Instant cutoff = YearMonth.now(clock).minusMonths(archiveAfterMonths)
+                .atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        OffsetDateTime oldest = jdbcTemplate.queryForObject("select min(timestamp) from transactions", OffsetDateTime.class);
+        if (oldest == null || !oldest.toInstant().isBefore(cutoff)) {
+            return 0;
+        }
+
+        long moved = 0;
+        Instant from = oldest.toInstant().truncatedTo(ChronoUnit.DAYS);
+        while (from.isBefore(cutoff)) {
+            Instant to = from.plus(Duration.ofDays(1));
+            if (to.isAfter(cutoff)) {
+                to = cutoff;
+            }
+            moved += moveWindow(from, to);
+            from = to;
+        }
+
+        log.info("Archived {} transactions older than {}", moved, cutoff);
+        return moved;
+    }
+
+    private int moveWindow(Instant from, Instant to) {
+        OffsetDateTime start = OffsetDateTime.ofInstant(from, ZoneOffset.UTC);
+        OffsetDateTime end = OffsetDateTime.ofInstant(to, ZoneOffset.UTC);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(COPY_SQL, start, end);
+            // Counted on the delete, since rows already in the archive are not copied again
+            return jdbcTemplate.update(DELETE_SQL, start, end);
+        });
+    }
+
+    private static boolean advisoryLock(PreparedStatement statement) throws SQLException {
+        try (statement) {
+            statement.setLong(1, ARCHIVE_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
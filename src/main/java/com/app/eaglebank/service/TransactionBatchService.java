@@ -0,0 +1,218 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.dto.requests.BatchTransactionItem;
+import com.app.eaglebank.dto.responses.TransactionBatchResponse;
+import com.app.eaglebank.dto.responses.TransactionBatchResponse.ItemResult;
+import com.app.eaglebank.dto.responses.TransactionResponse;
+import com.app.eaglebank.exception.ConflictException;
+import com.app.eaglebank.exception.ResourceNotFoundException;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.Transaction;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.TransactionBatchRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for posting batches of deposits and withdrawals.
+ *
+ * Items are validated individually and applied in request order against a running balance,
+ * so one bad item fails on its own without rejecting the rest. Accepted postings are written
+ * with a single JDBC batch insert and one balance update per account, all inside one database
+ * transaction, which makes bulk ingestion far cheaper than one request per posting.
+ */
+
+@Service
+public class TransactionBatchService {
+
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final AccountPostingSequencer postingSequencer;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TransactionBatchService(AccountRepository accountRepository,
+                                   AccountCache accountCache,
+                                   TransactionBatchRepository transactionBatchRepository,
+                                   AccountPostingSequencer postingSequencer,
+                                   BalanceSnapshotService balanceSnapshotService,
+                                   TransactionIdGenerator transactionIdGenerator,
+                                   PlatformTransactionManager transactionManager,
+                                   Validator validator,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.accountRepository = accountRepository;
+        this.accountCache = accountCache;
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.postingSequencer = postingSequencer;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Single-account batch: the account must exist and belong to the caller
+    public TransactionBatchResponse createBatch(String accountNumber, List<BatchTransactionItem> items, User authenticatedUser) {
+        return postBatch(accountNumber, items, authenticatedUser);
+    }
+
+    // Multi-account batch: each item names its own account and unknown accounts fail per item
+    public TransactionBatchResponse createBatch(List<BatchTransactionItem> items, User authenticatedUser) {
+        return postBatch(null, items, authenticatedUser);
+    }
+
+    private TransactionBatchResponse postBatch(String pathAccountNumber, List<BatchTransactionItem> items, User authenticatedUser) {
+        ItemResult[] results = new ItemResult[items.size()];
+
+        // Validate each item and group the valid ones by account, keeping request order
+        Map<String, List<Integer>> itemsByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchTransactionItem item = items.get(i);
+            String accountNumber = pathAccountNumber != null ? pathAccountNumber : item.getAccountNumber();
+
+            String error = validate(item, pathAccountNumber);
+            if (error != null) {
+                results[i] = ItemResult.failure(i, accountNumber, error);
+            } else {
+                itemsByAccount.computeIfAbsent(accountNumber, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        if (!itemsByAccount.isEmpty()) {
+            // Hold every involved account's stripe so the batch sees balances no other local posting can change
+            postingSequencer.withAccountLocks(itemsByAccount.keySet(), () -> transactionTemplate.execute(status -> {
+                Instant now = TransactionService.postingTime();
+                List<Transaction> accepted = new ArrayList<>();
+                itemsByAccount.forEach((accountNumber, indexes) ->
+                        applyToAccount(accountNumber, indexes, items, pathAccountNumber != null,
+                                authenticatedUser, now, accepted, results));
+
+                // One JDBC batch for every accepted posting in the request
+                if (!accepted.isEmpty()) {
+                    transactionBatchRepository.insertAll(accepted);
+                }
+                return null;
+            }));
+        }
+
+        return new TransactionBatchResponse(Arrays.asList(results));
+    }
+
+    private void applyToAccount(String accountNumber, List<Integer> indexes, List<BatchTransactionItem> items,
+                                boolean singleAccount, User authenticatedUser, Instant now,
+                                List<Transaction> accepted, ItemResult[] results) {
+        // The batch decides against this balance, so read the row rather than a cached copy
+        Account account = accountRepository.findCurrentByAccountNumber(accountNumber).orElse(null);
+
+        // Ownership and existence problems reject the whole request for single-account batches
+        String accountError = null;
+        if (account == null) {
+            if (singleAccount) {
+                throw new ResourceNotFoundException("Account not found");
+            }
+            accountError = "Account not found";
+        } else if (!account.getUser().getId().equals(authenticatedUser.getId())) {
+            if (singleAccount) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+            }
+            accountError = "Access denied";
+        }
+        if (accountError != null) {
+            for (int index : indexes) {
+                results[index] = ItemResult.failure(index, accountNumber, accountError);
+            }
+            return;
+        }
+
+        // Apply items in order against a running balance
+        int acceptedBefore = accepted.size();
+        BigDecimal balance = account.getBalance();
+        for (int index : indexes) {
+            BatchTransactionItem item = items.get(index);
+            BigDecimal amount = item.getAmount();
+            boolean deposit = item.getType().equalsIgnoreCase("deposit");
+
+            BigDecimal next = deposit ? balance.add(amount) : balance.subtract(amount);
+            if (next.signum() < 0) {
+                results[index] = ItemResult.failure(index, accountNumber, "Insufficient balance for withdrawal");
+                continue;
+            }
+            if (next.compareTo(TransactionService.MAX_BALANCE) > 0) {
+                results[index] = ItemResult.failure(index, accountNumber, "Deposit would exceed the maximum account balance");
+                continue;
+            }
+            balance = next;
+
+            Transaction txn = new Transaction();
+            txn.setId(transactionIdGenerator.nextId());
+            txn.setAccount(account);
+            txn.setAmount(amount);
+            txn.setCurrency(item.getCurrency());
+            txn.setType(item.getType().toLowerCase());
+            txn.setReference(item.getReference());
+            txn.setTimestamp(now);
+            accepted.add(txn);
+            results[index] = ItemResult.success(index, accountNumber, new TransactionResponse(txn));
+        }
+
+        // A single conditional update applies the net change; it only fails if another instance moved the balance
+        BigDecimal delta = balance.subtract(account.getBalance());
+        if (delta.signum() != 0
+                && accountRepository.applyBalanceDelta(account.getId(), delta, TransactionService.MAX_BALANCE, now) == 0) {
+            throw new ConflictException("Balance of account " + accountNumber + " changed during the batch; no transactions were posted");
+        }
+        if (delta.signum() != 0) {
+            // The update detached the account, so it can carry the new balance to the cache on commit
+            account.setBalance(balance);
+            account.setUpdatedTimestamp(now);
+            accountCache.putAfterCommit(account);
+            eventPublisher.publishEvent(EntityChangedEvent.accountUpdated(account));
+        }
+        if (accepted.size() > acceptedBefore) {
+            balanceSnapshotService.recordPostings(account, accepted.size() - acceptedBefore, now);
+        }
+    }
+
+    private String validate(BatchTransactionItem item, String pathAccountNumber) {
+        if (item == null) {
+            return "Transaction is required";
+        }
+
+        Set<ConstraintViolation<BatchTransactionItem>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (pathAccountNumber == null && (item.getAccountNumber() == null || item.getAccountNumber().isBlank())) {
+            return "accountNumber: Account number is required";
+        }
+        if (pathAccountNumber != null && item.getAccountNumber() != null && !pathAccountNumber.equals(item.getAccountNumber())) {
+            return "accountNumber: Does not match the account in the request path";
+        }
+        return null;
+    }
+}
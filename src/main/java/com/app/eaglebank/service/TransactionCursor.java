@@ -0,0 +1,50 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for transaction history pages.
+ *
+ * Points at the last row of a page by its (timestamp, id) key, so the next page starts
+ * strictly after it no matter how many rows are inserted in the meantime.
+ */
+
+public class TransactionCursor {
+
+    private final Instant timestamp;
+    private final String id;
+
+    public TransactionCursor(Instant timestamp, String id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public Instant getTimestamp() { return timestamp; }
+    public String getId() { return id; }
+
+    public String encode() {
+        String raw = timestamp.getEpochSecond() + "." + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            if (dot < 0 || colon < dot) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            Instant timestamp = Instant.ofEpochSecond(
+                    Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, colon)));
+            return new TransactionCursor(timestamp, raw.substring(colon + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+    }
+}
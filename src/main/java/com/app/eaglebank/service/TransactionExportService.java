@@ -0,0 +1,171 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.dto.responses.TransactionResponse;
+import com.app.eaglebank.exception.BadRequestException;
+import com.app.eaglebank.exception.ResourceNotFoundException;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.ArchivedTransactionRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Service class responsible for exporting the full transaction history of an account.
+ *
+ * Rows are read through a database cursor and written straight to the response as NDJSON
+ * or CSV, flushing every chunk, so memory use stays flat however long the history is.
+ */
+
+@Service
+public class TransactionExportService {
+
+    // Rows written between flushes of the response stream
+    static final int CHUNK_SIZE = 1000;
+
+    private static final String CSV_HEADER = "id,amount,currency,type,reference,userId,createdTimestamp";
+
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        ExportFormat(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static ExportFormat from(String value) {
+            for (ExportFormat format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Export format must be 'ndjson' or 'csv'");
+        }
+    }
+
+    private final AccountCache accountCache;
+    private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public TransactionExportService(AccountCache accountCache,
+                                    TransactionRepository transactionRepository,
+                                    ArchivedTransactionRepository archivedTransactionRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper) {
+        this.accountCache = accountCache;
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public StreamingResponseBody exportTransactions(String accountNumber, User authenticatedUser, ExportFormat format) {
+        // Check access up front so errors surface as normal responses, not a truncated stream
+        Account account = accountCache.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+
+        if (!account.getUser().getId().equals(authenticatedUser.getId())) {
+            throw new SecurityException("Access denied");
+        }
+
+        UUID accountId = account.getId();
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            // The cursors only stay open inside a transaction; archived rows all precede hot ones
+            try (Stream<TransactionResponse> rows = Stream.concat(
+                    archivedTransactionRepository.streamByAccountId(accountId),
+                    transactionRepository.streamByAccountId(accountId))) {
+                if (format == ExportFormat.CSV) {
+                    writeCsv(rows.iterator(), out);
+                } else {
+                    writeNdjson(rows.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(Iterator<TransactionResponse> rows, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            int written = 0;
+            while (rows.hasNext()) {
+                generator.writeObject(rows.next());
+                if (++written % CHUNK_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+            if (written > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<TransactionResponse> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        int written = 0;
+        while (rows.hasNext()) {
+            TransactionResponse row = rows.next();
+            writer.write(row.getId());
+            writer.write(',');
+            writer.write(row.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(csvField(row.getCurrency()));
+            writer.write(',');
+            writer.write(csvField(row.getType()));
+            writer.write(',');
+            writer.write(csvField(row.getReference()));
+            writer.write(',');
+            writer.write(row.getUserId());
+            writer.write(',');
+            writer.write(row.getCreatedTimestamp().toString());
+            writer.write('\n');
+
+            if (++written % CHUNK_SIZE == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    // Quote a free-text value only when it contains characters that would break the row
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
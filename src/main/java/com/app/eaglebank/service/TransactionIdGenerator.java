@@ -0,0 +1,88 @@
+package com.app.eaglebank.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered transaction id generator in the style of Snowflake.
+ *
+ * Each id packs milliseconds since 2025-01-01, a per-millisecond counter and the node id into
+ * 63 bits, encoded as 13 fixed-width Crockford base32 characters after "tan-". Ids from one
+ * node are strictly increasing, both numerically and as strings, so new rows land at the end
+ * of the primary key index. Generation is a single CAS on an AtomicLong and one string.
+ *
+ * The node id comes from a TransactionNodeLease, which guarantees no two running instances
+ * share one; ids are refused once the lease can no longer be vouched for.
+ */
+
+@Component
+public class TransactionIdGenerator {
+
+    static final String PREFIX = "tan-";
+
+    private static final long EPOCH_MILLIS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final int ENCODED_LENGTH = 13;
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final LongSupplier leaseValidUntil;
+
+    // Milliseconds since the epoch shifted left over the sequence bits, plus the sequence
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public TransactionIdGenerator(TransactionNodeLease nodeLease) {
+        this(nodeLease.nodeId(), System::currentTimeMillis, nodeLease::validUntilMillis);
+    }
+
+    // Node id owned for good, as in tests
+    TransactionIdGenerator(int nodeId, LongSupplier clock) {
+        this(nodeId, clock, () -> Long.MAX_VALUE);
+    }
+
+    TransactionIdGenerator(int nodeId, LongSupplier clock, LongSupplier leaseValidUntil) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.leaseValidUntil = leaseValidUntil;
+    }
+
+    public String nextId() {
+        return encode(nextValue());
+    }
+
+    long nextValue() {
+        long millis = clock.getAsLong();
+        if (millis > leaseValidUntil.getAsLong()) {
+            throw new IllegalStateException("Lease on transaction node id " + nodeId + " is no longer held");
+        }
+        long now = (millis - EPOCH_MILLIS) << SEQUENCE_BITS;
+        // Never step backwards: a stalled or rewound clock keeps counting, and an exhausted
+        // sequence rolls over into the next millisecond
+        long state = lastState.updateAndGet(previous -> Math.max(previous + 1, now));
+        return (state << NODE_BITS) | nodeId;
+    }
+
+    static String encode(long value) {
+        byte[] chars = new byte[PREFIX.length() + ENCODED_LENGTH];
+        for (int i = 0; i < PREFIX.length(); i++) {
+            chars[i] = (byte) PREFIX.charAt(i);
+        }
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+}
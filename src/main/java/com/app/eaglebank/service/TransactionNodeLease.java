@@ -0,0 +1,142 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.repository.TransactionNodeLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * This instance's lease on the node id embedded in its transaction ids.
+ *
+ * Transaction ids are only unique if no two running instances share a node id, so the id is
+ * leased from the transaction_node_lease table at startup rather than derived from the host.
+ * A configured node id is leased if it is free and startup fails if another instance holds it;
+ * otherwise the lowest free or expired id is taken. The lease is renewed in the background and
+ * released on shutdown. Ids may only be generated while the lease is known to be held: the
+ * local validity window is half the lease, so an instance that can no longer renew stops well
+ * before another one could take its node id over.
+ */
+
+@Component
+public class TransactionNodeLease implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionNodeLease.class);
+
+    private final TransactionNodeLeaseRepository leaseRepository;
+    private final Duration ttl;
+    private final LongSupplier clock;
+    private final String owner;
+    private final int nodeId;
+
+    // Wall-clock millis until which this instance may generate ids under the lease
+    private volatile long validUntilMillis;
+
+    @Autowired
+    public TransactionNodeLease(TransactionNodeLeaseRepository leaseRepository,
+                                @Value("${eaglebank.transactions.node-id:-1}") int requestedNodeId,
+                                @Value("${eaglebank.transactions.node-lease.ttl:60s}") Duration ttl) {
+        this(leaseRepository, requestedNodeId, ttl, System::currentTimeMillis);
+    }
+
+    TransactionNodeLease(TransactionNodeLeaseRepository leaseRepository, int requestedNodeId, Duration ttl,
+                         LongSupplier clock) {
+        if (requestedNodeId > TransactionIdGenerator.MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + TransactionIdGenerator.MAX_NODE_ID);
+        }
+        this.leaseRepository = leaseRepository;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.owner = hostName() + "/" + UUID.randomUUID();
+
+        long startedAt = clock.getAsLong();
+        this.nodeId = acquire(requestedNodeId);
+        this.validUntilMillis = startedAt + ttl.toMillis() / 2;
+        log.info("Leased transaction node id {} as {}", nodeId, owner);
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    public long validUntilMillis() {
+        return validUntilMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${eaglebank.transactions.node-lease.renew-interval:15s}")
+    public void renew() {
+        long startedAt = clock.getAsLong();
+        OffsetDateTime now = leaseRepository.databaseNow();
+        OffsetDateTime expiresAt = now.plus(ttl);
+        // A lease that lapsed while the database was unreachable can be taken back if nobody else has
+        if (leaseRepository.renew(nodeId, owner, expiresAt) || leaseRepository.takeOver(nodeId, owner, now, expiresAt)) {
+            validUntilMillis = startedAt + ttl.toMillis() / 2;
+            return;
+        }
+        validUntilMillis = Long.MIN_VALUE;
+        log.error("Lease on transaction node id {} was taken over by another instance; postings will fail until restart",
+                nodeId);
+    }
+
+    @Override
+    public void destroy() {
+        validUntilMillis = Long.MIN_VALUE;
+        leaseRepository.release(nodeId, owner);
+    }
+
+    // Lowest node id that was never leased or whose holder stopped renewing it
+    private int acquire(int requestedNodeId) {
+        OffsetDateTime now = leaseRepository.databaseNow();
+        OffsetDateTime expiresAt = now.plus(ttl);
+        Map<Integer, OffsetDateTime> leases = leaseRepository.findAll();
+
+        if (requestedNodeId >= 0) {
+            if (claim(requestedNodeId, leases, now, expiresAt)) {
+                return requestedNodeId;
+            }
+            throw new IllegalStateException("Transaction node id " + requestedNodeId
+                    + " is leased to another running instance");
+        }
+        for (int candidate = 0; candidate <= TransactionIdGenerator.MAX_NODE_ID; candidate++) {
+            OffsetDateTime leasedUntil = leases.get(candidate);
+            if ((leasedUntil == null || leasedUntil.isBefore(now)) && claim(candidate, leases, now, expiresAt)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + (TransactionIdGenerator.MAX_NODE_ID + 1)
+                + " transaction node ids are leased to running instances");
+    }
+
+    private boolean claim(int candidate, Map<Integer, OffsetDateTime> leases, OffsetDateTime now, OffsetDateTime expiresAt) {
+        if (leases.containsKey(candidate)) {
+            return leaseRepository.takeOver(candidate, owner, now, expiresAt);
+        }
+        try {
+            leaseRepository.insert(candidate, owner, expiresAt);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Another instance claimed it since we looked
+            return false;
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
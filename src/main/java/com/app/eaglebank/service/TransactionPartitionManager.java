@@ -0,0 +1,145 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.config.DatabasePlatform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of the transactions table ahead of the clock on PostgreSQL.
+ *
+ * On startup and once a day it creates the partitions for the current month and the next few,
+ * so postings never fall into the default partition. Optionally, partitions older than a
+ * retention window are detached from the table and left in place as standalone tables, but
+ * only once TransactionArchiver has moved every row out of them: reads never look at a
+ * detached partition, so its rows would vanish from history, exports and balances.
+ * On databases without the partitioned table (such as the H2 test database) it does nothing.
+ */
+
+@Component
+public class TransactionPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionManager.class);
+
+    static final String PARTITION_PREFIX = "transactions_p";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final int detachAfterMonths;
+
+    private volatile Boolean partitioned;
+
+    @Autowired
+    public TransactionPartitionManager(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform,
+                                       @Value("${eaglebank.transactions.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${eaglebank.transactions.partitions.detach-after-months:0}") int detachAfterMonths) {
+        this(jdbcTemplate, databasePlatform, Clock.systemUTC(), monthsAhead, detachAfterMonths);
+    }
+
+    TransactionPartitionManager(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform, Clock clock,
+                                int monthsAhead, int detachAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.clock = clock;
+        this.monthsAhead = monthsAhead;
+        this.detachAfterMonths = detachAfterMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${eaglebank.transactions.partitions.cron:0 0 1 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+
+        // 0 keeps every partition attached
+        if (detachAfterMonths > 0) {
+            detachPartitionsBefore(current.minusMonths(detachAfterMonths));
+        }
+    }
+
+    void createPartition(YearMonth month) {
+        String sql = "create table if not exists " + partitionName(month) + " partition of transactions"
+                + " for values from ('" + month.atDay(1) + " 00:00:00+00')"
+                + " to ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')";
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            // Fails if the default partition already holds rows for that month; later months are still created
+            log.error("Could not create transactions partition for {}", month, e);
+        }
+    }
+
+    void detachPartitionsBefore(YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid " +
+                        "join pg_class p on p.oid = i.inhparent " +
+                        "where p.relname = 'transactions'", String.class);
+
+        for (String partition : partitions) {
+            YearMonth month = monthOf(partition);
+            if (month != null && month.isBefore(cutoff)) {
+                if (holdsRows(partition)) {
+                    log.warn("Not detaching transactions partition {}: it still holds rows that have not been archived",
+                            partition);
+                    continue;
+                }
+                jdbcTemplate.execute("alter table transactions detach partition " + partition);
+                log.info("Detached transactions partition {}", partition);
+            }
+        }
+    }
+
+    // The archiver copies and deletes rows in one transaction, so an empty partition has nothing left to lose
+    private boolean holdsRows(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from " + partition + ")", Boolean.class));
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+    }
+
+    // Month covered by a partition created by this class or the partitioning migration; null for any other table
+    static YearMonth monthOf(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = databasePlatform.isPostgres() && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "select exists (select 1 from pg_partitioned_table pt " +
+                            "join pg_class c on c.oid = pt.partrelid where c.relname = 'transactions')", Boolean.class));
+        }
+        return partitioned;
+    }
+}
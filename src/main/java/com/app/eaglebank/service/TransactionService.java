@@ -1,21 +1,32 @@
 package com.app.eaglebank.service;
 
 import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.dto.responses.TransactionPageResponse;
+import com.app.eaglebank.dto.responses.TransactionResponse;
 import com.app.eaglebank.model.Account;
 import com.app.eaglebank.model.Transaction;
 import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.ArchivedTransactionRepository;
 import com.app.eaglebank.repository.TransactionRepository;
 import com.app.eaglebank.exception.ResourceNotFoundException;
 import com.app.eaglebank.model.User;
 
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -28,18 +39,87 @@ import java.util.UUID;
 @Service
 public class TransactionService {
 
+    // Mirrors the @DecimalMax constraint on Account.balance
+    static final BigDecimal MAX_BALANCE = new BigDecimal("10000.00");
+
+    // Bounds for the history page size
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
     private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
     private final AccountRepository accountRepository;
-
-    public TransactionService(TransactionRepository transactionRepository, AccountRepository accountRepository) {
+    private final AccountCache accountCache;
+    private final AccountPostingSequencer postingSequencer;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final IdempotencyStore idempotencyStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TransactionService(TransactionRepository transactionRepository,
+                              ArchivedTransactionRepository archivedTransactionRepository,
+                              AccountRepository accountRepository, AccountCache accountCache,
+                              AccountPostingSequencer postingSequencer, BalanceSnapshotService balanceSnapshotService,
+                              TransactionIdGenerator transactionIdGenerator, IdempotencyStore idempotencyStore,
+                              PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
         this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
         this.accountRepository = accountRepository;
+        this.accountCache = accountCache;
+        this.postingSequencer = postingSequencer;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.idempotencyStore = idempotencyStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
     }
 
-    @Transactional
     public Transaction createTransaction(String accountNumber, CreateTransactionRequest request, User authenticatedUser) {
-        // Retrieve account and validate its existence
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        // Queue behind other postings to this account before taking a connection, then post in one DB transaction
+        return postingSequencer.withAccountLock(accountNumber, () -> transactionTemplate.execute(status ->
+                postTransaction(accountNumber, request, authenticatedUser, transactionIdGenerator.nextId())));
+    }
+
+    // Posts at most once per Idempotency-Key; repeating the request returns the original response
+    public TransactionResponse createTransaction(String accountNumber, CreateTransactionRequest request,
+                                                 User authenticatedUser, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new TransactionResponse(createTransaction(accountNumber, request, authenticatedUser));
+        }
+        IdempotencyStore.validateKey(idempotencyKey);
+        UUID userId = authenticatedUser.getId();
+        String fingerprint = IdempotencyStore.fingerprint(accountNumber, request);
+
+        // Retries this instance has already answered never queue for the account
+        Optional<TransactionResponse> recent = idempotencyStore.findRecent(userId, idempotencyKey, fingerprint);
+        if (recent.isPresent()) {
+            return recent.get();
+        }
+
+        try {
+            // A duplicate that queued behind the original on the account's lock finds its response on the way in
+            return postingSequencer.withAccountLock(accountNumber, () -> idempotencyStore
+                    .findRecent(userId, idempotencyKey, fingerprint)
+                    .orElseGet(() -> transactionTemplate.execute(status -> {
+                        // Spend the key first, so a duplicate from any instance fails before the balance is touched
+                        String transactionId = transactionIdGenerator.nextId();
+                        idempotencyStore.record(userId, idempotencyKey, fingerprint, transactionId);
+                        TransactionResponse response = new TransactionResponse(
+                                postTransaction(accountNumber, request, authenticatedUser, transactionId));
+                        idempotencyStore.rememberAfterCommit(userId, idempotencyKey, fingerprint, response);
+                        return response;
+                    })));
+        } catch (DuplicateKeyException e) {
+            // Used earlier than this instance remembers, or by a request on another instance
+            return idempotencyStore.replay(userId, idempotencyKey, fingerprint);
+        }
+    }
+
+    private Transaction postTransaction(String accountNumber, CreateTransactionRequest request, User authenticatedUser,
+                                        String transactionId) {
+        // Retrieve the current account row (never a cached copy) and validate its existence
+        Account account = accountRepository.findCurrentByAccountNumber(accountNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         // Check ownership
@@ -56,23 +136,39 @@ public class TransactionService {
         // Extract transaction type
         String type = request.getType();
 
-        // Process deposit or withdrawal
+        // Work out the signed balance change for a deposit or withdrawal
+        BigDecimal delta;
         if (type.equalsIgnoreCase("deposit")) {
-            account.setBalance(account.getBalance().add(amount));
+            delta = amount;
 
         } else if (type.equalsIgnoreCase("withdrawal")) {
-            // Check sufficient balance
+            // Fail fast on the balance we read; the conditional update below is the real guard
             if (account.getBalance().compareTo(amount) < 0) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient balance for withdrawal");
             }
-            account.setBalance(account.getBalance().subtract(amount));
+            delta = amount.negate();
 
         } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid transaction type");
         }
 
-        // Update account timestamp to reflect modification
-        account.setUpdatedTimestamp(Instant.now());
+        // Apply the change in a single conditional UPDATE so concurrent postings cannot lose updates.
+        // The update detaches the account, so later changes to it are never flushed back over the balance.
+        Instant now = postingTime();
+        int updated = accountRepository.applyBalanceDelta(account.getId(), delta, MAX_BALANCE, now);
+        if (updated == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, delta.signum() < 0
+                    ? "Insufficient balance for withdrawal"
+                    : "Deposit would exceed the maximum account balance");
+        }
+        // Keep the detached copy in step with the posting for callers, and write it through to the cache on commit
+        account.setBalance(account.getBalance().add(delta));
+        account.setUpdatedTimestamp(now);
+        accountCache.putAfterCommit(account);
+        eventPublisher.publishEvent(EntityChangedEvent.accountUpdated(account));
+
+        // Stamp the posting once the account row is held, so timestamps follow the order balances changed in
+        Instant postedAt = postingTime();
 
         // Create and populate new transaction entity
         Transaction txn = new Transaction();
@@ -81,21 +177,26 @@ public class TransactionService {
         txn.setCurrency(request.getCurrency());
         txn.setType(type.toLowerCase());
         txn.setReference(request.getReference());
-        txn.setTimestamp(Instant.now());
-        txn.setId("tan-" + UUID.randomUUID().toString().replace("-", "").substring(0, 12));
+        txn.setTimestamp(postedAt);
+        txn.setId(transactionId);
 
 
-        // Persist transaction and updated account in a single transaction
-        txn = transactionRepository.save(txn);
-        accountRepository.save(account);
+        // Persist the transaction in the same database transaction as the balance update
+        Transaction saved = transactionRepository.save(txn);
+        balanceSnapshotService.recordPostings(account, 1, postedAt);
+        return saved;
+    }
 
-        return txn;
+    // Now, at the timestamp columns' microsecond precision, so a returned timestamp is exactly what is stored
+    static Instant postingTime() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     @Transactional
-    public List<Transaction> getTransactionsByAccountId(String accountNumber, User authenticatedUser) {
+    public TransactionPageResponse getTransactionPage(String accountNumber, User authenticatedUser,
+                                                      Integer limit, String after) {
         // Find the account
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        Account account = accountCache.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
         // Ownership check
@@ -103,7 +204,40 @@ public class TransactionService {
             throw new SecurityException("Access denied");
         }
 
-        // Fetch and return all transactions for this account
-        return transactionRepository.findByAccount_AccountNumber(accountNumber);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        // Fetch one extra row to learn whether another page follows
+        Limit fetch = Limit.of(pageSize + 1);
+        TransactionCursor cursor = after == null || after.isBlank() ? null : TransactionCursor.decode(after);
+        List<TransactionResponse> rows = cursor == null
+                ? transactionRepository.findFirstPage(account.getId(), fetch)
+                : transactionRepository.findPageAfter(account.getId(), cursor.getTimestamp(), cursor.getId(), fetch);
+
+        // Archived rows are all older than hot ones, so a short hot page continues into the archive
+        if (rows.size() <= pageSize) {
+            if (!rows.isEmpty()) {
+                TransactionResponse oldest = rows.get(rows.size() - 1);
+                cursor = new TransactionCursor(oldest.getCreatedTimestamp(), oldest.getId());
+            }
+            Limit remaining = Limit.of(pageSize + 1 - rows.size());
+            List<TransactionResponse> archived = cursor == null
+                    ? archivedTransactionRepository.findFirstPage(account.getId(), remaining)
+                    : archivedTransactionRepository.findPageAfter(account.getId(), cursor.getTimestamp(), cursor.getId(), remaining);
+            if (!archived.isEmpty()) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(archived);
+            }
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionResponse> transactions = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionResponse last = transactions.get(transactions.size() - 1);
+            nextCursor = new TransactionCursor(last.getCreatedTimestamp(), last.getId()).encode();
+        }
+
+        return new TransactionPageResponse(transactions, nextCursor);
     }
 }
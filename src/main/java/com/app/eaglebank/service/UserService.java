@@ -5,6 +5,9 @@ import com.app.eaglebank.model.User;
 import com.app.eaglebank.repository.AccountRepository;
 import com.app.eaglebank.repository.UserRepository;
 import com.app.eaglebank.exception.BadRequestException;
+import com.app.eaglebank.security.PrincipalCache;
+import com.app.eaglebank.security.TokenVersionRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -28,12 +31,20 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AccountRepository accountRepository;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder, AccountRepository accountRepository) {
+                       PasswordEncoder passwordEncoder, AccountRepository accountRepository,
+                       PrincipalCache principalCache, TokenVersionRegistry tokenVersionRegistry,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.accountRepository = accountRepository;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.eventPublisher = eventPublisher;
     }
 
     public User registerUser(User user) {
@@ -73,8 +84,16 @@ public class UserService {
         if (updatedData.getPassword() != null) {
             // Re-hash password for security
             existingUser.setPassword(passwordEncoder.encode(updatedData.getPassword()));
+            // Revoke tokens issued with the old password
+            existingUser.setTokenVersion(existingUser.getTokenVersion() + 1);
         }
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+
+        // Cached principals for this user are now stale, here and on the other instances
+        principalCache.invalidateUser(savedUser.getEmail());
+        tokenVersionRegistry.evict(savedUser.getId());
+        eventPublisher.publishEvent(EntityChangedEvent.userUpdated(savedUser));
+        return savedUser;
     }
 
     public List<User> getAllUsers() {
@@ -96,6 +115,9 @@ public class UserService {
 
         // Safe to delete user with no accounts
         userRepository.delete(user);
+        principalCache.invalidateUser(user.getEmail());
+        tokenVersionRegistry.evict(user.getId());
+        eventPublisher.publishEvent(EntityChangedEvent.userDeleted(user));
     }
 }
 
@@ -0,0 +1,73 @@
+-- Initial schema. Indexes follow the application's query shapes; see RepositoryIndexUsageTest.
+
+create table users (
+    id            uuid                        not null,
+    email         varchar(255)                not null,
+    name          varchar(255)                not null,
+    phone_number  varchar(255)                not null,
+    line1         varchar(255)                not null,
+    line2         varchar(255),
+    line3         varchar(255),
+    town          varchar(255)                not null,
+    county        varchar(255)                not null,
+    postcode      varchar(255)                not null,
+    password      varchar(255)                not null,
+    token_version integer                     not null default 0,
+    created_at    timestamp(6) with time zone,
+    updated_at    timestamp(6) with time zone,
+    constraint pk_users primary key (id),
+    -- Login and registration look users up by email; registration also checks the phone number
+    constraint uk_users_email unique (email),
+    constraint uk_users_phone_number unique (phone_number)
+);
+
+create table account (
+    id             uuid                        not null,
+    user_id        uuid                        not null,
+    account_number varchar(255)                not null,
+    sort_code      varchar(255)                not null,
+    name           varchar(255)                not null,
+    account_type   varchar(255),
+    currency       varchar(255)                not null,
+    balance        numeric(10, 2)              not null,
+    created_at     timestamp(6) with time zone,
+    updated_at     timestamp(6) with time zone,
+    constraint pk_account primary key (id),
+    constraint uk_account_account_number unique (account_number),
+    constraint fk_account_user foreign key (user_id) references users (id),
+    constraint ck_account_account_type check (account_type in ('PERSONAL'))
+);
+
+-- Listing a user's accounts and the "has accounts" check on user deletion
+create index idx_account_user_id on account (user_id);
+
+create table transactions (
+    id         varchar(255)                not null,
+    account_id uuid,
+    amount     numeric(10, 2)              not null,
+    currency   varchar(255)                not null,
+    type       varchar(255)                not null,
+    reference  varchar(255),
+    timestamp  timestamp(6) with time zone not null,
+    constraint pk_transactions primary key (id),
+    constraint fk_transactions_account foreign key (account_id) references account (id)
+);
+
+-- History pages, exports and balance replays scan one account in (timestamp, id) order
+create index idx_transactions_account_timestamp_id on transactions (account_id, timestamp, id);
+-- The daily snapshot job finds accounts with recent postings
+create index idx_transactions_timestamp on transactions (timestamp);
+
+create table balance_snapshots (
+    id         uuid                        not null,
+    account_id uuid                        not null,
+    as_of      timestamp(6) with time zone not null,
+    balance    numeric(10, 2)              not null,
+    constraint pk_balance_snapshots primary key (id),
+    constraint fk_balance_snapshots_account foreign key (account_id) references account (id)
+);
+
+create index idx_balance_snapshots_account_as_of on balance_snapshots (account_id, as_of);
+
+-- Blocks of account number ordinals; the increment must match AccountNumberAllocator.BLOCK_SIZE
+create sequence account_number_seq start with 0 minvalue 0 increment by 100;
@@ -0,0 +1,16 @@
+-- Cold tier for transactions older than the hot retention window; filled by TransactionArchiver.
+-- Rows are append-only, so the table is never updated in place.
+
+create table transactions_archive (
+    id         varchar(255)                not null,
+    account_id uuid,
+    amount     numeric(10, 2)              not null,
+    currency   varchar(255)                not null,
+    type       varchar(255)                not null,
+    reference  varchar(255),
+    timestamp  timestamp(6) with time zone not null,
+    constraint pk_transactions_archive primary key (id),
+    constraint fk_transactions_archive_account foreign key (account_id) references account (id)
+);
+
+create index idx_transactions_archive_account_timestamp_id on transactions_archive (account_id, timestamp, id);
@@ -0,0 +1,14 @@
+-- Idempotency-Key values sent with transaction POSTs, so a retried request replays its original result.
+-- Each row is written in the same database transaction as its posting; IdempotencyStore purges expired rows in batches.
+
+create table idempotency_key (
+    user_id         uuid                        not null,
+    idempotency_key varchar(255)                not null,
+    request_hash    varchar(64)                 not null,
+    transaction_id  varchar(255)                not null,
+    created_at      timestamp(6) with time zone not null,
+    constraint pk_idempotency_key primary key (user_id, idempotency_key)
+);
+
+-- The purge job deletes the oldest rows first
+create index idx_idempotency_key_created_at on idempotency_key (created_at);
@@ -0,0 +1,9 @@
+-- Node ids embedded in transaction ids, leased to running instances so no two of them ever share one.
+-- An instance renews its lease while it runs; a lease left to expire (crashed instance) can be taken over.
+
+create table transaction_node_lease (
+    node_id    integer                     not null,
+    owner      varchar(255)                not null,
+    expires_at timestamp(6) with time zone not null,
+    constraint pk_transaction_node_lease primary key (node_id)
+);
@@ -0,0 +1,3 @@
+-- H2 has no declarative partitioning; the transactions table stays a single table here.
+-- The PostgreSQL version of this migration partitions it by month.
+select 1;
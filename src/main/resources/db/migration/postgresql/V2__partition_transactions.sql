@@ -0,0 +1,47 @@
+-- Range-partition transactions by month on timestamp.
+-- The primary key has to include the partition key; ids stay unique because TransactionIdGenerator never repeats one.
+-- Future partitions are created ahead of time by TransactionPartitionManager.
+
+create table transactions_partitioned (
+    id         varchar(255)                not null,
+    account_id uuid,
+    amount     numeric(10, 2)              not null,
+    currency   varchar(255)                not null,
+    type       varchar(255)                not null,
+    reference  varchar(255),
+    timestamp  timestamp(6) with time zone not null
+) partition by range (timestamp);
+
+-- Catches rows outside every monthly partition; stays empty while the partition manager keeps ahead
+create table transactions_default partition of transactions_partitioned default;
+
+-- One partition per UTC month from the oldest existing row through next month
+do $$
+declare
+    month_start timestamp;
+    last_month  timestamp;
+begin
+    select date_trunc('month', coalesce(min(timestamp), now()) at time zone 'UTC') into month_start from transactions;
+    last_month := date_trunc('month', now() at time zone 'UTC') + interval '1 month';
+
+    while month_start <= last_month loop
+        execute format('create table %I partition of transactions_partitioned for values from (%L) to (%L)',
+                       'transactions_p' || to_char(month_start, 'YYYY_MM'),
+                       month_start::text || '+00',
+                       (month_start + interval '1 month')::text || '+00');
+        month_start := month_start + interval '1 month';
+    end loop;
+end $$;
+
+insert into transactions_partitioned (id, account_id, amount, currency, type, reference, timestamp)
+select id, account_id, amount, currency, type, reference, timestamp from transactions;
+
+drop table transactions;
+alter table transactions_partitioned rename to transactions;
+
+alter table transactions add constraint pk_transactions primary key (id, timestamp);
+alter table transactions add constraint fk_transactions_account foreign key (account_id) references account (id);
+
+-- Partitioned indexes; each partition gets its own copy
+create index idx_transactions_account_timestamp_id on transactions (account_id, timestamp, id);
+create index idx_transactions_timestamp on transactions (timestamp);
@@ -0,0 +1,68 @@
+package com.app.eaglebank;
+
+import org.openjdk.jmh.profile.Profiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the JMH benchmarks of one class from a JUnit test and hands back the scores.
+ *
+ * Benchmark classes are named *Benchmark and tagged "benchmark", so only "mvn test -Pbenchmarks"
+ * runs them. Each run uses one forked JVM with short warmup and measurement phases: enough for
+ * before/after comparisons and for checking a target, not for publishing absolute numbers. The
+ * mode and time unit come from the benchmark class's own annotations.
+ */
+
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    @SafeVarargs
+    public static Collection<RunResult> run(Class<?> benchmarkClass, Class<? extends Profiler>... profilers) {
+        OptionsBuilder options = new OptionsBuilder();
+        for (Class<? extends Profiler> profiler : profilers) {
+            options.addProfiler(profiler);
+        }
+        try {
+            return new Runner(options
+                    .include("^" + Pattern.quote(benchmarkClass.getName()) + "\\.")
+                    .forks(1)
+                    .warmupIterations(3)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(1))
+                    .build()).run();
+        } catch (RunnerException e) {
+            throw new IllegalStateException("Benchmark " + benchmarkClass.getSimpleName() + " failed", e);
+        }
+    }
+
+    // Score of one @Benchmark method, in the unit the benchmark declares
+    public static double score(Collection<RunResult> results, String method) {
+        return resultOf(results, method).getPrimaryResult().getScore();
+    }
+
+    // A profiler's figure for one @Benchmark method, such as "gc.alloc.rate.norm" from GCProfiler
+    public static double score(Collection<RunResult> results, String method, String secondary) {
+        Result<?> result = resultOf(results, method).getSecondaryResults().get(secondary);
+        if (result == null) {
+            throw new IllegalArgumentException("No " + secondary + " result for benchmark " + method);
+        }
+        return result.getScore();
+    }
+
+    private static RunResult resultOf(Collection<RunResult> results, String method) {
+        return results.stream()
+                .filter(result -> result.getParams().getBenchmark().endsWith("." + method))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No result for benchmark " + method));
+    }
+}
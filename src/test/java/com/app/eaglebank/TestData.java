@@ -0,0 +1,42 @@
+package com.app.eaglebank;
+
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.AccountType;
+import com.app.eaglebank.model.Address;
+import com.app.eaglebank.model.User;
+
+/**
+ * Unsaved users and accounts for tests that run against the database.
+ *
+ * Each test class passes its own email, phone number and account number, so classes sharing
+ * the test database never collide on a unique column.
+ */
+
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static User user(String name, String email, String phoneNumber) {
+        return new User(name, email, "hashed", address(), phoneNumber, null, null);
+    }
+
+    // A personal account with the default zero balance
+    public static Account account(User user, String name, String accountNumber) {
+        Account account = new Account();
+        account.setUser(user);
+        account.setName(name);
+        account.setAccountType(AccountType.PERSONAL);
+        account.setAccountNumber(accountNumber);
+        return account;
+    }
+
+    public static Address address() {
+        Address address = new Address();
+        address.setLine1("1 Test Street");
+        address.setTown("London");
+        address.setCounty("Greater London");
+        address.setPostcode("E1 1AA");
+        return address;
+    }
+}
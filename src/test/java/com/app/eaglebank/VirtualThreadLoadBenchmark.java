@@ -0,0 +1,194 @@
+package com.app.eaglebank;
+
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.UserRepository;
+import com.app.eaglebank.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestClassOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Requests in flight at once and p99 request latency when every request waits on I/O, with Tomcat on a small
+// platform thread pool and then on virtual threads. Each request passes the real security filters and then blocks
+// for a fixed time, as it would on a slow database or downstream call; the work itself is negligible, so the gap
+// comes from how many waiting requests each mode can hold, not from the CPU.
+@Tag("benchmark")
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+public class VirtualThreadLoadBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadBenchmark.class);
+
+    private static final int MAX_THREADS = 10;
+    private static final int CONCURRENT_REQUESTS = 100;
+    private static final int ROUNDS = 3;
+    private static final Duration IO_TIME = Duration.ofMillis(250);
+
+    // Measured by PlatformThreads for VirtualThreads to compare against
+    private static final Map<String, Result> results = new ConcurrentHashMap<>();
+
+    @Nested
+    @Order(1)
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+    class PlatformThreads extends Scenario {
+
+        @Override
+        void report(Result result) {
+            results.put("platform", result);
+            // Every request beyond the pool waits in Tomcat's queue
+            assertTrue(result.ceiling() <= MAX_THREADS, "ceiling " + result.ceiling());
+        }
+    }
+
+    @Nested
+    @Order(2)
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads extends Scenario {
+
+        @Override
+        void report(Result result) {
+            Result platform = results.get("platform");
+            assertNotNull(platform, "PlatformThreads runs first");
+            log.info("Virtual threads: {} requests in flight against {}, p99 {} ms against {} ms",
+                    result.ceiling(), platform.ceiling(), result.p99Millis(), platform.p99Millis());
+
+            // The thread pool no longer bounds the requests waiting on I/O, so most of each burst waits at once.
+            // The platform pool serves a burst in CONCURRENT_REQUESTS / MAX_THREADS waves; virtual threads in about one
+            // wave plus the CPU time of the burst, which on a single core is still a sizeable share.
+            assertTrue(result.ceiling() > CONCURRENT_REQUESTS / 2, "ceiling " + result.ceiling());
+            assertTrue(result.p99Millis() * 2 < platform.p99Millis(),
+                    "p99 " + result.p99Millis() + " ms on virtual threads, " + platform.p99Millis() + " ms on platform threads");
+        }
+    }
+
+    record Result(int ceiling, long p99Millis) {
+    }
+
+    // Stands in for an endpoint whose handler blocks on the database, counting the requests inside it
+    @RestController
+    static class BlockingController {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger ceiling = new AtomicInteger();
+
+        @GetMapping("/v1/benchmark/blocking")
+        String blocking() throws InterruptedException {
+            ceiling.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(IO_TIME);
+                return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        int takeCeiling() {
+            return ceiling.getAndSet(0);
+        }
+    }
+
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "server.tomcat.threads.max=" + MAX_THREADS,
+            "server.tomcat.threads.min-spare=" + MAX_THREADS,
+            "eaglebank.rate-limit.enabled=false"})
+    @Import(BlockingController.class)
+    abstract static class Scenario {
+
+        @LocalServerPort private int port;
+        @Autowired private UserRepository userRepository;
+        @Autowired private JwtService jwtService;
+        @Autowired private BlockingController controller;
+
+        private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        private String token;
+
+        abstract void report(Result result);
+
+        @BeforeEach
+        void setUp() {
+            User user = userRepository.save(TestData.user("Load User", "virtual-threads@example.com", "+447700900012"));
+            token = jwtService.generateToken(user);
+        }
+
+        @AfterEach
+        void tearDown() {
+            userRepository.deleteAll();
+        }
+
+        @Test
+        void burstOfBlockingRequests() throws Exception {
+            // Warms the filters, the principal caches and one client connection per concurrent request
+            burst(CONCURRENT_REQUESTS);
+            controller.takeCeiling();
+
+            long[] latencies = new long[CONCURRENT_REQUESTS * ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                long[] roundLatencies = burst(CONCURRENT_REQUESTS);
+                System.arraycopy(roundLatencies, 0, latencies, round * CONCURRENT_REQUESTS, CONCURRENT_REQUESTS);
+            }
+            int ceiling = controller.takeCeiling();
+
+            Arrays.sort(latencies);
+            long p50 = percentileMillis(latencies, 50);
+            long p99 = percentileMillis(latencies, 99);
+            log.info("{}: {} requests blocking {} ms each, {} in flight at most, p50 {} ms, p99 {} ms",
+                    getClass().getSimpleName(), CONCURRENT_REQUESTS, IO_TIME.toMillis(), ceiling, p50, p99);
+            report(new Result(ceiling, p99));
+        }
+
+        // Sends the requests all at once and returns each one's latency in nanoseconds
+        private long[] burst(int requests) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/benchmark/blocking"))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+
+            long[] latencies = new long[requests];
+            List<CompletableFuture<Void>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                long start = System.nanoTime();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenAccept(response -> {
+                    assertEquals(200, response.statusCode(), response.body());
+                    latencies[index] = System.nanoTime() - start;
+                }));
+            }
+            // join also publishes each callback's write to the array
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+            return latencies;
+        }
+    }
+
+    // Nearest-rank percentile of sorted nanosecond latencies
+    private static long percentileMillis(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(rank, 1) - 1]);
+    }
+}
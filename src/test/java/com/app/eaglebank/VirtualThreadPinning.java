@@ -0,0 +1,62 @@
+package com.app.eaglebank;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Runs a task on many virtual threads at once under a JFR recording and returns the jdk.VirtualThreadPinned
+// events raised meanwhile: each one is a virtual thread that blocked while held to its carrier
+public final class VirtualThreadPinning {
+
+    private VirtualThreadPinning() {
+    }
+
+    // Failures of the task are rethrown, so a test never passes on work that did not run
+    public static List<RecordedEvent> record(int threads, Callable<?> task) throws Exception {
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(task));
+                }
+                for (Future<?> future : futures) {
+                    future.get(1, TimeUnit.MINUTES);
+                }
+            }
+
+            recording.stop();
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    // Where the first pinned thread blocked, for an assertion message
+    public static String describe(List<RecordedEvent> events) {
+        if (events.isEmpty() || events.getFirst().getStackTrace() == null) {
+            return events.size() + " pinned virtual threads";
+        }
+        return events.size() + " pinned virtual threads, the first at\n" + events.getFirst().getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(method -> "  " + method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining("\n"));
+    }
+}
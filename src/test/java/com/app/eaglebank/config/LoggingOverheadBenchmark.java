@@ -0,0 +1,191 @@
+package com.app.eaglebank.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.app.eaglebank.BenchmarkRunner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.results.RunResult;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Logging cost a request thread pays per posting: the former base configuration against the prod profile.
+// Output goes to a null stream, so this is the CPU cost of deciding, formatting and encoding; writing to a
+// real console or file only adds to the former configuration's share.
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoggingOverheadBenchmark {
+
+    // A posting is three statements: the account read, the balance update and the insert
+    private static final String[] POSTING_STATEMENTS = {
+            """
+
+                select
+                    a1_0.id,
+                    a1_0.account_number,
+                    a1_0.account_type,
+                    a1_0.balance,
+                    a1_0.created_at,
+                    a1_0.currency,
+                    a1_0.name,
+                    a1_0.sort_code,
+                    a1_0.updated_at,
+                    a1_0.user_id
+                from
+                    account a1_0
+                where
+                    a1_0.account_number=?""",
+            """
+
+                update
+                    account
+                set
+                    balance = balance + ?,
+                    updated_at = ?
+                where
+                    id = ?
+                    and balance + ? >= 0
+                    and balance + ? <= ?""",
+            """
+
+                insert
+                into
+                    transactions
+                    (account_id, amount, currency, reference, timestamp, type, id)
+                values
+                    (?, ?, ?, ?, ?, ?, ?)"""
+    };
+
+    private static final String PLAIN_PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 1 --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private LoggerContext before;
+    private LoggerContext prod;
+    private PrintStream showSql;
+
+    @Setup
+    public void setUp() {
+        // Former base configuration: show-sql, org.hibernate.SQL at DEBUG and org.springframework.web at DEBUG,
+        // all written synchronously as plain text
+        before = new LoggerContext();
+        PatternLayoutEncoder pattern = new PatternLayoutEncoder();
+        pattern.setContext(before);
+        pattern.setPattern(PLAIN_PATTERN);
+        pattern.start();
+        before.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(nullAppender(before, pattern));
+        before.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        before.getLogger("org.hibernate.SQL").setLevel(Level.DEBUG);
+        before.getLogger("org.springframework.web").setLevel(Level.DEBUG);
+        showSql = new PrintStream(OutputStream.nullOutputStream());
+
+        // prod profile: SQL loggers at WARN, ECS JSON behind a non-blocking AsyncAppender, as in logback-spring.xml
+        prod = new LoggerContext();
+        prod.putObject(Environment.class.getName(), new StandardEnvironment());
+        StructuredLogEncoder json = new StructuredLogEncoder();
+        json.setContext(prod);
+        json.setFormat("ecs");
+        json.start();
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(prod);
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(820);
+        async.setNeverBlock(true);
+        async.addAppender(nullAppender(prod, json));
+        async.start();
+        prod.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(async);
+        prod.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        prod.getLogger("org.hibernate.SQL").setLevel(Level.WARN);
+        prod.getLogger("org.hibernate.orm.jdbc.bind").setLevel(Level.WARN);
+    }
+
+    @TearDown
+    public void tearDown() {
+        before.stop();
+        prod.stop();
+    }
+
+    @Benchmark
+    public void postingWithFormerLogging() {
+        posting(before, true);
+    }
+
+    @Benchmark
+    public void postingWithProdLogging() {
+        posting(prod, false);
+    }
+
+    // The one kind of event the prod profile still writes from a request thread
+    @Benchmark
+    public void infoEventPlainText() {
+        before.getLogger("com.app.eaglebank.service.TransactionService").info("Posted {} to {}", "tan-0000000001", "01000001");
+    }
+
+    @Benchmark
+    public void infoEventAsyncJson() {
+        prod.getLogger("com.app.eaglebank.service.TransactionService").info("Posted {} to {}", "tan-0000000001", "01000001");
+    }
+
+    private void posting(LoggerContext context, boolean showSqlEnabled) {
+        Logger web = context.getLogger("org.springframework.web.servlet.DispatcherServlet");
+        Logger sql = context.getLogger("org.hibernate.SQL");
+        Logger bind = context.getLogger("org.hibernate.orm.jdbc.bind");
+
+        web.debug("POST \"/v1/accounts/01000001/transactions\", parameters={}", "{}");
+        for (String statement : POSTING_STATEMENTS) {
+            // Hibernate checks the level before building the message, as here
+            if (sql.isDebugEnabled()) {
+                sql.debug(statement);
+            }
+            if (showSqlEnabled) {
+                showSql.println("Hibernate: " + statement);
+            }
+            if (bind.isTraceEnabled()) {
+                bind.trace("binding parameter (1:NUMERIC) <- [{}]", "100.00");
+            }
+        }
+        web.debug("Completed 201 CREATED");
+    }
+
+    private static Appender<ILoggingEvent> nullAppender(LoggerContext context, Encoder<ILoggingEvent> encoder) {
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    @Test
+    void prodLogging_shouldCostAPostingAlmostNothing() {
+        Collection<RunResult> results = BenchmarkRunner.run(LoggingOverheadBenchmark.class);
+
+        double former = BenchmarkRunner.score(results, "postingWithFormerLogging");
+        double prod = BenchmarkRunner.score(results, "postingWithProdLogging");
+        assertTrue(prod * 20 < former, "prod " + prod + " ns vs former " + former + " ns per posting");
+    }
+}
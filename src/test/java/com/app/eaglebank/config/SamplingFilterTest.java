@@ -0,0 +1,34 @@
+package com.app.eaglebank.config;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SamplingFilterTest {
+
+    @Test
+    void decide_shouldKeepOneInEverySampleRateEvents() {
+        SamplingFilter filter = new SamplingFilter();
+        filter.setSampleRate(10);
+
+        int kept = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.decide(new LoggingEvent()) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertEquals(100, kept);
+    }
+
+    @Test
+    void decide_shouldKeepEverythingByDefault() {
+        SamplingFilter filter = new SamplingFilter();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(new LoggingEvent()));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Each step commits on its own, so the second-level cache sees the same sequence a live instance does
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AccountSecondLevelCacheTest {
+
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(TestData.user("Cache User", "cache@example.com", "+447700900004"));
+
+        account = TestData.account(user, "Cache Account", "01000500");
+        account.setBalance(new BigDecimal("100.00"));
+        account = accountRepository.save(account);
+        cache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void naturalIdLookups_shouldPopulateTheEntityRegions() {
+        accountRepository.findByAccountNumber("01000500").orElseThrow();
+        userRepository.findByEmail("cache@example.com").orElseThrow();
+
+        assertTrue(cache().contains(Account.class, account.getId()));
+        assertTrue(cache().contains(User.class, user.getId()));
+    }
+
+    @Test
+    void applyBalanceDelta_shouldNotLeaveAStaleCachedBalance() {
+        assertEquals(0, new BigDecimal("100.00").compareTo(
+                accountRepository.findByAccountNumber("01000500").orElseThrow().getBalance()));
+
+        int updated = new TransactionTemplate(transactionManager).execute(status ->
+                accountRepository.applyBalanceDelta(account.getId(), new BigDecimal("-25.00"),
+                        new BigDecimal("10000.00"), Instant.now()));
+        assertEquals(1, updated);
+
+        assertEquals(0, new BigDecimal("75.00").compareTo(
+                accountRepository.findByAccountNumber("01000500").orElseThrow().getBalance()));
+    }
+
+    @Test
+    void rolledBackBalanceDelta_shouldKeepServingTheCommittedBalance() {
+        accountRepository.findByAccountNumber("01000500").orElseThrow();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            accountRepository.applyBalanceDelta(account.getId(), new BigDecimal("-25.00"),
+                    new BigDecimal("10000.00"), Instant.now());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(
+                accountRepository.findByAccountNumber("01000500").orElseThrow().getBalance()));
+    }
+
+    @Test
+    void applyBalanceDelta_shouldLeaveTheCallersOtherEntitiesManaged() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User owner = userRepository.findById(user.getId()).orElseThrow();
+            Account loaded = accountRepository.findById(account.getId()).orElseThrow();
+
+            accountRepository.applyBalanceDelta(account.getId(), new BigDecimal("-25.00"),
+                    new BigDecimal("10000.00"), Instant.now());
+            // Changed after the balance update, in the same transaction
+            owner.setName("Renamed User");
+
+            assertNotSame(loaded, accountRepository.findById(account.getId()).orElseThrow());
+        });
+
+        assertEquals("Renamed User", userRepository.findById(user.getId()).orElseThrow().getName());
+        assertEquals(0, new BigDecimal("75.00").compareTo(
+                accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache();
+    }
+}
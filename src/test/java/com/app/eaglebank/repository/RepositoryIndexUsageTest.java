@@ -0,0 +1,110 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every repository query, then EXPLAINs the exact SQL Hibernate issued against the migrated schema
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.app.eaglebank.repository.RepositoryIndexUsageTest$RecordingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class RepositoryIndexUsageTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired private ArchivedTransactionRepository archivedTransactionRepository;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Account account;
+
+    public static class RecordingInspector implements StatementInspector {
+        static final Set<String> STATEMENTS = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(TestData.user("Index User", "index@example.com", "+447700900003"));
+
+        account = TestData.account(user, "Index Account", "01000400");
+        entityManager.persist(account);
+        entityManager.flush();
+        entityManager.clear();
+        // Second-level cache hits would skip the very queries this test needs to see
+        entityManager.getEntityManager().getEntityManagerFactory().getCache().evictAll();
+
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void everyRepositoryQuery_shouldBeServedByAnIndex() {
+        Instant now = Instant.now();
+
+        userRepository.findByEmail("index@example.com");
+        userRepository.existsByEmail("index@example.com");
+        userRepository.existsByPhoneNumber("+447700900003");
+        userRepository.findTokenVersionById(user.getId());
+
+        accountRepository.findByUser(user);
+        accountRepository.existsByUser(user);
+        accountRepository.findByAccountNumber("01000400");
+        accountRepository.findCurrentByAccountNumber("01000400");
+        accountRepository.existsByAccountNumber("01000400");
+        accountRepository.findBalanceById(account.getId());
+        accountRepository.applyBalanceDelta(account.getId(), BigDecimal.ONE, BigDecimal.TEN, now);
+
+        transactionRepository.findFirstPage(account.getId(), Limit.of(10));
+        transactionRepository.findPageAfter(account.getId(), now, "tan-0", Limit.of(10));
+        transactionRepository.findResponseById("tan-0");
+        try (var rows = transactionRepository.streamByAccountId(account.getId())) {
+            rows.forEach(row -> { });
+        }
+        transactionRepository.sumDeltaBetween(account.getId(), now.minusSeconds(60), now);
+        transactionRepository.sumDeltaUpTo(account.getId(), now);
+        transactionRepository.findAccountIdsWithPostingsSince(now.minusSeconds(86_400));
+
+        balanceSnapshotRepository.findFirstByAccount_IdAndAsOfLessThanEqualOrderByAsOfDesc(account.getId(), now);
+
+        archivedTransactionRepository.findFirstPage(account.getId(), Limit.of(10));
+        archivedTransactionRepository.findPageAfter(account.getId(), now, "tan-0", Limit.of(10));
+        try (var rows = archivedTransactionRepository.streamByAccountId(account.getId())) {
+            rows.forEach(row -> { });
+        }
+        archivedTransactionRepository.sumDeltaBetween(account.getId(), now.minusSeconds(60), now);
+        archivedTransactionRepository.sumDeltaUpTo(account.getId(), now);
+
+        List<String> statements = RecordingInspector.STATEMENTS.stream().sorted().toList();
+        assertTrue(statements.size() >= 23, "expected every query to be recorded: " + statements);
+
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+            assertFalse(plan.contains("tableScan"), "full table scan for:\n" + sql + "\nplan:\n" + plan);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.app.eaglebank.repository;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Read requests per second with the second-level cache in use and with it bypassed. Each read is what
+// GET /v1/accounts/{accountNumber} does against the database: the principal by email, the account by
+// number and the owner's account list, in one transaction. On the in-memory test database a query is far
+// cheaper than a PostgreSQL round trip, so the gap here is a lower bound.
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(SecondLevelCacheBenchmark.class);
+
+    private static final int ACCOUNTS = 100;
+    private static final int WARMUP_READS = 5_000;
+    private static final int READS = 20_000;
+
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+    private User user;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = userRepository.save(TestData.user("Reader User", "reader@example.com", "+447700900011"));
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = String.format("0140%04d", i);
+            accountRepository.save(TestData.account(user, "Read Account", accountNumber));
+            accountNumbers.add(accountNumber);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void reads_shouldBeServedWithoutQueriesOnceCached() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        double bypassed = readsPerSecond(CacheMode.IGNORE);
+        long bypassedStatements = statistics.getPrepareStatementCount();
+        double cached = readsPerSecond(CacheMode.NORMAL);
+        long cachedStatements = statistics.getPrepareStatementCount();
+
+        log.info("Read requests/s: {} with the second-level cache, {} without ({} vs {} statements for {} reads)",
+                Math.round(cached), Math.round(bypassed), cachedStatements, bypassedStatements, READS);
+        assertEquals(0, cachedStatements);
+        assertTrue(bypassedStatements >= 3L * READS);
+    }
+
+    // Statistics are cleared after the warmup, so they cover only the measured reads
+    private double readsPerSecond(CacheMode cacheMode) {
+        for (int i = 0; i < WARMUP_READS; i++) {
+            read(cacheMode, i);
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            read(cacheMode, i);
+        }
+        return READS / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private void read(CacheMode cacheMode, int i) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+            User owner = userRepository.findByEmail(user.getEmail()).orElseThrow();
+            accountRepository.findByAccountNumber(accountNumbers.get(i % ACCOUNTS)).orElseThrow();
+            accountRepository.findByUser(owner);
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.app.eaglebank.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BCryptCostCalibratorTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void strengthFor_shouldPickTheHighestCostThatStaysWithinTheTarget() {
+        // Cost 6 at 2ms doubles to 256ms at cost 13; cost 14 would take 512ms
+        assertEquals(13, BCryptCostCalibrator.strengthFor(300 * MILLIS, 2 * MILLIS));
+        assertEquals(13, BCryptCostCalibrator.strengthFor(256 * MILLIS, 2 * MILLIS));
+    }
+
+    @Test
+    void strengthFor_shouldStayWithinTheFloorAndCeiling() {
+        assertEquals(BCryptCostCalibrator.MIN_STRENGTH, BCryptCostCalibrator.strengthFor(MILLIS, 50 * MILLIS));
+        assertEquals(BCryptCostCalibrator.MAX_STRENGTH, BCryptCostCalibrator.strengthFor(60_000 * MILLIS, 1));
+    }
+
+    @Test
+    void calibrate_shouldReturnACostInRange() {
+        int strength = BCryptCostCalibrator.calibrate(Duration.ofMillis(50));
+
+        assertTrue(strength >= BCryptCostCalibrator.MIN_STRENGTH && strength <= BCryptCostCalibrator.MAX_STRENGTH);
+    }
+}
@@ -0,0 +1,81 @@
+package com.app.eaglebank.security;
+
+import com.app.eaglebank.BenchmarkRunner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hashes per second on one core for each encoder the application can be configured with
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PasswordHashingBenchmark {
+
+    // The application's default target, from eaglebank.security.bcrypt.target-hash-time
+    private static final Duration TARGET_HASH_TIME = Duration.ofMillis(100);
+
+    @Param({"bcrypt-calibrated", "bcrypt-10", "pbkdf2"})
+    public String encoderName;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = switch (encoderName) {
+            case "bcrypt-calibrated" -> new BCryptPasswordEncoder(BCryptCostCalibrator.calibrate(TARGET_HASH_TIME));
+            case "bcrypt-10" -> new BCryptPasswordEncoder(10);
+            case "pbkdf2" -> Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+            default -> throw new IllegalArgumentException(encoderName);
+        };
+        hash = encoder.encode("correct horse battery staple");
+    }
+
+    // Registration and the re-hash after an upgrade
+    @Benchmark
+    public String encode() {
+        return encoder.encode("correct horse battery staple");
+    }
+
+    // Every login
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("correct horse battery staple", hash);
+    }
+
+    @Test
+    void calibratedCost_shouldHashNearTheTargetTime() {
+        Collection<RunResult> results = BenchmarkRunner.run(PasswordHashingBenchmark.class);
+
+        // Below the minimum cost the calibrator never goes, so a slow machine may miss the target
+        if (BCryptCostCalibrator.calibrate(TARGET_HASH_TIME) > BCryptCostCalibrator.MIN_STRENGTH) {
+            double hashesPerSecond = results.stream()
+                    .filter(result -> "bcrypt-calibrated".equals(result.getParams().getParam("encoderName")))
+                    .filter(result -> result.getParams().getBenchmark().endsWith(".matches"))
+                    .findFirst().orElseThrow()
+                    .getPrimaryResult().getScore();
+            // The chosen cost takes between half the target time and all of it, with some room for noise
+            double targetPerSecond = 1_000d / TARGET_HASH_TIME.toMillis();
+            assertTrue(hashesPerSecond >= targetPerSecond * 0.75 && hashesPerSecond <= targetPerSecond * 2.5,
+                    "calibrated bcrypt managed " + hashesPerSecond + " hashes/s for a target of " + targetPerSecond);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.app.eaglebank.security;
+
+import com.app.eaglebank.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrincipalCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(100, meterRegistry);
+    }
+
+    @Test
+    void get_shouldReturnAFreshCopyOfThePrincipalOnEveryHit() {
+        User user = user("cache@example.com");
+        principalCache.put("token-1", user, inMinutes(30), principalCache.generation());
+
+        User first = principalCache.get("cache@example.com", "token-1");
+        first.setName("Changed By A Request");
+        User second = principalCache.get("cache@example.com", "token-1");
+
+        assertNotSame(first, second);
+        assertEquals(user.getId(), second.getId());
+        assertEquals("Cache User", second.getName());
+        assertEquals(user.getTokenVersion(), second.getTokenVersion());
+        assertNull(principalCache.get("cache@example.com", "token-2"));
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "jwtPrincipals").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void put_shouldBeSkippedWhenTheUserChangedWhileThePrincipalWasLoading() {
+        long generation = principalCache.generation();
+        User loadedBeforeTheChange = user("race@example.com");
+
+        // UserService.updateUser commits and invalidates between the load and the put
+        principalCache.invalidateUser("race@example.com");
+        principalCache.put("token-1", loadedBeforeTheChange, inMinutes(30), generation);
+
+        assertNull(principalCache.get("race@example.com", "token-1"));
+    }
+
+    @Test
+    void invalidateUser_shouldDropEveryTokenOfThatUserOnly() {
+        principalCache.put("token-1", user("a@example.com"), inMinutes(30), principalCache.generation());
+        principalCache.put("token-2", user("a@example.com"), inMinutes(30), principalCache.generation());
+        principalCache.put("token-3", user("b@example.com"), inMinutes(30), principalCache.generation());
+
+        principalCache.invalidateUser("a@example.com");
+
+        assertNull(principalCache.get("a@example.com", "token-1"));
+        assertNull(principalCache.get("a@example.com", "token-2"));
+        assertNotNull(principalCache.get("b@example.com", "token-3"));
+    }
+
+    @Test
+    void get_shouldMissOnceTheTokenHasExpired() {
+        principalCache.put("token-old", user("expiry@example.com"), new Date(System.currentTimeMillis() - 1),
+                principalCache.generation());
+        principalCache.put("token-new", user("expiry@example.com"), inMinutes(30), principalCache.generation());
+
+        assertNull(principalCache.get("expiry@example.com", "token-old"));
+        assertNotNull(principalCache.get("expiry@example.com", "token-new"));
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(UUID.nameUUIDFromBytes(email.getBytes()));
+        user.setEmail(email);
+        user.setName("Cache User");
+        user.setTokenVersion(3);
+        return user;
+    }
+
+    private static Date inMinutes(int minutes) {
+        return new Date(System.currentTimeMillis() + minutes * 60_000L);
+    }
+}
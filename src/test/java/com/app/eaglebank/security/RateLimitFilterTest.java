@@ -0,0 +1,98 @@
+package com.app.eaglebank.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RateLimitFilterTest {
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = mock(RateLimiter.class);
+        filter = new RateLimitFilter(rateLimiter, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void requestWithinLimit_shouldContinueDownTheChain() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("GET", "/v1/accounts"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verify(rateLimiter).tryAcquire(RateLimiter.Group.DEFAULT, "10.0.0.1");
+    }
+
+    @Test
+    void requestOverLimit_shouldGet429WithRetryAfterRoundedUp() throws Exception {
+        when(rateLimiter.tryAcquire(any(), anyString())).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("POST", "/v1/auth/login"), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"status\":429"));
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void authenticatedRequests_shouldBeLimitedPerUserExceptLogin() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user@example.com", null, List.of()));
+
+        filter.doFilter(request("POST", "/v1/accounts/01000001/transactions"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("POST", "/v1/auth/login"), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(rateLimiter).tryAcquire(RateLimiter.Group.TRANSACTIONS, "user@example.com");
+        verify(rateLimiter).tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1");
+    }
+
+    @Test
+    void groupOf_shouldPutEveryTransactionEndpointInTheTransactionsGroup() {
+        assertEquals(RateLimiter.Group.TRANSACTIONS, RateLimitFilter.groupOf(request("GET", "/v1/accounts/01000001/transactions/export")));
+        assertEquals(RateLimiter.Group.TRANSACTIONS, RateLimitFilter.groupOf(request("POST", "/v1/accounts/01000001/transactions:batch")));
+        assertEquals(RateLimiter.Group.TRANSACTIONS, RateLimitFilter.groupOf(request("POST", "/v1/transactions:batch")));
+        assertEquals(RateLimiter.Group.DEFAULT, RateLimitFilter.groupOf(request("GET", "/v1/accounts/01000001/balance")));
+        assertEquals(RateLimiter.Group.DEFAULT, RateLimitFilter.groupOf(request("POST", "/v1/users")));
+    }
+
+    @Test
+    void disabledFilter_shouldNotTouchTheLimiter() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        new RateLimitFilter(rateLimiter, false).doFilter(request("GET", "/v1/accounts"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(rateLimiter);
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
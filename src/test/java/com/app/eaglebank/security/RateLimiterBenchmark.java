@@ -0,0 +1,120 @@
+package com.app.eaglebank.security;
+
+import com.app.eaglebank.BenchmarkRunner;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.results.RunResult;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Time the limiter adds to each request: the bucket alone, and the whole filter with its request inspection
+@Tag("benchmark")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    // Shared by all benchmark threads, like the application's single limiter
+    @State(Scope.Benchmark)
+    public static class SharedLimiter {
+
+        RateLimiter rateLimiter;
+
+        @Setup
+        public void setUp() {
+            // Generous limits, so every request takes the admit path that normal traffic takes
+            RateLimiter.Limit limit = RateLimiter.Limit.of(1_000_000_000L, 1_000_000_000d);
+            rateLimiter = new RateLimiter(
+                    Map.of(RateLimiter.Group.LOGIN, limit, RateLimiter.Group.TRANSACTIONS, limit, RateLimiter.Group.DEFAULT, limit),
+                    100_000, Duration.ofMinutes(10), new SimpleMeterRegistry(), Ticker.systemTicker());
+        }
+    }
+
+    private final String[] clients = new String[CLIENTS];
+    private int next;
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp(SharedLimiter shared) {
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "user" + i + "@example.com";
+        }
+        filter = new RateLimitFilter(shared.rateLimiter, true);
+        request = new MockHttpServletRequest("POST", "/v1/accounts/01000001/transactions");
+        request.setServletPath("/v1/accounts/01000001/transactions");
+        response = new MockHttpServletResponse();
+        // Runs on the benchmark thread, so the filter sees an authenticated user as it does after the JWT filter
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user1@example.com", null, List.of()));
+    }
+
+    @Benchmark
+    public long tryAcquireOneClient(SharedLimiter shared) {
+        return shared.rateLimiter.tryAcquire(RateLimiter.Group.TRANSACTIONS, "user1@example.com");
+    }
+
+    // Spread over many buckets, so the cache lookups miss the CPU cache as they would in production
+    @Benchmark
+    public long tryAcquireManyClients(SharedLimiter shared) {
+        String client = clients[next];
+        next = next + 1 == CLIENTS ? 0 : next + 1;
+        return shared.rateLimiter.tryAcquire(RateLimiter.Group.TRANSACTIONS, client);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long tryAcquireManyClientsFourThreads(SharedLimiter shared) {
+        return tryAcquireManyClients(shared);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter() throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void perRequestOverhead_shouldStayUnderOneMicrosecond() {
+        Collection<RunResult> results = BenchmarkRunner.run(RateLimiterBenchmark.class);
+
+        List<String> benchmarks = new ArrayList<>(List.of("tryAcquireOneClient", "tryAcquireManyClients", "filter"));
+        // With fewer cores the threads queue for the CPU, and their waits count as time per request
+        if (Runtime.getRuntime().availableProcessors() >= 4) {
+            benchmarks.add("tryAcquireManyClientsFourThreads");
+        }
+        for (String benchmark : benchmarks) {
+            double nanos = BenchmarkRunner.score(results, benchmark);
+            assertTrue(nanos < 1_000, benchmark + " took " + nanos + " ns per request");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.app.eaglebank.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(Map.of(
+                RateLimiter.Group.LOGIN, RateLimiter.Limit.of(3, 1),
+                RateLimiter.Group.TRANSACTIONS, RateLimiter.Limit.of(5, 10),
+                RateLimiter.Group.DEFAULT, RateLimiter.Limit.of(100, 50)),
+                1000, Duration.ofMinutes(10), meterRegistry, nanos::get);
+    }
+
+    @Test
+    void tryAcquire_shouldAllowABurstUpToCapacityThenReportTheWait() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1"));
+        }
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1"));
+        assertEquals(1, meterRegistry.get("eaglebank.ratelimit.rejected").tag("group", "login").counter().count());
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOneTokenPerInterval() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1");
+        }
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(600), rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1"));
+        assertTrue(rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1") > 0);
+
+        // A long pause refills the bucket to capacity, never beyond it
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1"));
+        }
+        assertTrue(rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1") > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldKeepClientsAndGroupsApart() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.1");
+        }
+
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Group.LOGIN, "10.0.0.2"));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Group.DEFAULT, "10.0.0.1"));
+    }
+
+    @Test
+    void tryAcquire_shouldNeverAdmitMoreThanCapacityUnderContention() throws Exception {
+        AtomicInteger admitted = new AtomicInteger();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            CompletableFuture<?>[] attempts = new CompletableFuture<?>[8];
+            for (int t = 0; t < attempts.length; t++) {
+                attempts[t] = CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (rateLimiter.tryAcquire(RateLimiter.Group.TRANSACTIONS, "user@example.com") == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }, pool);
+            }
+            CompletableFuture.allOf(attempts).get(10, TimeUnit.SECONDS);
+        }
+
+        // The clock is frozen, so nothing refills while the threads race
+        assertEquals(5, admitted.get());
+    }
+}
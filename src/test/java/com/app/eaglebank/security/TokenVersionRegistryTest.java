@@ -0,0 +1,96 @@
+package com.app.eaglebank.security;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.VirtualThreadPinning;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Loads token versions from the test database, one committed read per miss as in a live instance
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TokenVersionRegistryTest {
+
+    private static final int USERS = 20;
+
+    @Autowired private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(TestData.user("Token User", "token" + i + "@example.com",
+                    String.format("+4477009002%02d", i))));
+        }
+        registry = new TokenVersionRegistry(userRepository, 1_000, Duration.ofMinutes(30), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void isCurrent_shouldAcceptOnlyTheStoredVersionOfAnExistingUser() {
+        User user = users.getFirst();
+        user.setTokenVersion(3);
+        userRepository.save(user);
+
+        assertTrue(registry.isCurrent(user.getId(), 3));
+        assertFalse(registry.isCurrent(user.getId(), 2));
+        assertFalse(registry.isCurrent(UUID.randomUUID(), 0));
+        assertFalse(registry.isCurrent(null, 0));
+    }
+
+    @Test
+    void evict_shouldPickUpARevocation() {
+        User user = users.getFirst();
+        assertTrue(registry.isCurrent(user.getId(), 0));
+
+        user.setTokenVersion(1);
+        userRepository.save(user);
+        assertTrue(registry.isCurrent(user.getId(), 0));
+
+        registry.evict(user.getId());
+        assertFalse(registry.isCurrent(user.getId(), 0));
+        assertTrue(registry.isCurrent(user.getId(), 1));
+    }
+
+    // Many virtual threads miss on the same cold users at once: one runs each query, the rest wait on its result
+    @Test
+    void coldLoadsOnVirtualThreads_shouldNotPinTheirCarriers() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+
+        List<RecordedEvent> pinned = VirtualThreadPinning.record(64, () -> {
+            for (User user : users) {
+                if (registry.isCurrent(user.getId(), 0)) {
+                    accepted.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(64 * USERS, accepted.get());
+        assertTrue(pinned.isEmpty(), VirtualThreadPinning.describe(pinned));
+    }
+}
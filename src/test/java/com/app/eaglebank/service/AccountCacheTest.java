@@ -0,0 +1,78 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AccountCacheTest {
+
+    private AccountRepository accountRepository;
+    private AccountCache accountCache;
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        accountCache = new AccountCache(accountRepository, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+
+        account = new Account();
+        account.setUser(user);
+        account.setAccountNumber("01000001");
+        account.setName("Cached Account");
+        account.setBalance(BigDecimal.TEN);
+        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.findByUser(user)).thenReturn(List.of(account));
+    }
+
+    @Test
+    void findByAccountNumber_shouldReturnCopiesThatAreNotNew() {
+        Account first = accountCache.findByAccountNumber("01000001").orElseThrow();
+        Account second = accountCache.findByAccountNumber("01000001").orElseThrow();
+
+        // A new-looking copy linked to a transaction would be treated as transient and re-inserted
+        assertFalse(first.isNew());
+        assertFalse(second.isNew());
+        assertNotSame(first, second);
+        assertEquals(account.getId(), first.getId());
+        assertEquals(0, BigDecimal.TEN.compareTo(first.getBalance()));
+        verify(accountRepository, times(1)).findByAccountNumber("01000001");
+    }
+
+    @Test
+    void findByUser_shouldReturnCopiesThatAreNotNew() {
+        accountCache.findByUser(user);
+        List<Account> accounts = accountCache.findByUser(user);
+
+        assertEquals(1, accounts.size());
+        assertFalse(accounts.get(0).isNew());
+        assertNotSame(account, accounts.get(0));
+    }
+
+    @Test
+    void putAfterCommit_shouldNotBeChangedByTheCallerAfterwards() {
+        accountCache.putAfterCommit(account);
+        account.setBalance(BigDecimal.ONE);
+
+        Account cached = accountCache.findByAccountNumber("01000001").orElseThrow();
+
+        assertEquals(0, BigDecimal.TEN.compareTo(cached.getBalance()));
+        assertFalse(cached.isNew());
+        verify(accountRepository, never()).findByAccountNumber(any());
+    }
+}
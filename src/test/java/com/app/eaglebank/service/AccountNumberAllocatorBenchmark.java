@@ -0,0 +1,132 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.BenchmarkRunner;
+import com.app.eaglebank.repository.AccountRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Account numbers allocated per second, and existence checks per allocation, with 10%, 50% and 90% of the
+// number space taken. The database is replaced by in-memory stand-ins, so this measures the allocator's own
+// cost and how many lookups (each a query in production) it needs, not query latency.
+@Tag("benchmark")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AccountNumberAllocatorBenchmark {
+
+    @Param({"10", "50", "90"})
+    public int occupancyPercent;
+
+    // Suffixes already taken: the ones the allocator handed out before the current sequence position
+    private final BitSet taken = new BitSet(AccountNumberAllocator.SUFFIX_SPACE);
+    private long lookups;
+    private long firstFreeOrdinal;
+    private long sequence;
+
+    private AccountNumberAllocator allocator;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long lookups;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        firstFreeOrdinal = (long) AccountNumberAllocator.SUFFIX_SPACE * occupancyPercent / 100;
+        for (long ordinal = 0; ordinal < firstFreeOrdinal; ordinal++) {
+            taken.set(suffixOf(AccountNumberAllocator.toAccountNumber(ordinal)));
+        }
+
+        AccountRepository accountRepository = (AccountRepository) Proxy.newProxyInstance(
+                AccountRepository.class.getClassLoader(), new Class<?>[]{AccountRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("existsByAccountNumber")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    lookups++;
+                    return taken.get(suffixOf((String) args[0]));
+                });
+        // Hands out blocks like account_number_seq, going back to the first free ordinal instead of running out
+        JdbcTemplate accountNumberSequence = new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                long blockStart = sequence;
+                sequence += AccountNumberAllocator.BLOCK_SIZE;
+                if (sequence >= AccountNumberAllocator.SUFFIX_SPACE) {
+                    sequence = firstFreeOrdinal;
+                }
+                return requiredType.cast(blockStart);
+            }
+        };
+        allocator = new AccountNumberAllocator(accountNumberSequence, accountRepository);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetSequence() {
+        sequence = firstFreeOrdinal;
+    }
+
+    @Benchmark
+    public String allocator(Counters counters) {
+        long before = lookups;
+        String number = allocator.nextAccountNumber();
+        counters.lookups += lookups - before;
+        return number;
+    }
+
+    // The former generateAccountNumber, retried until it misses every taken number as a caller would have to
+    @Benchmark
+    public String randomWithRetry(Counters counters) {
+        while (true) {
+            String number = "01" + String.format("%06d", new Random().nextInt(1_000_000));
+            counters.lookups++;
+            if (!taken.get(suffixOf(number))) {
+                return number;
+            }
+        }
+    }
+
+    private static int suffixOf(String accountNumber) {
+        return Integer.parseInt(accountNumber, AccountNumberAllocator.PREFIX.length(), accountNumber.length(), 10);
+    }
+
+    @Test
+    void allocator_shouldNeedOneLookupPerNumberAtAnyOccupancy() {
+        Collection<RunResult> results = BenchmarkRunner.run(AccountNumberAllocatorBenchmark.class);
+
+        for (String occupancy : new String[]{"10", "50", "90"}) {
+            assertEquals(1.0, lookupsPerNumber(results, "allocator", occupancy), 0.001, "allocator at " + occupancy + "%");
+        }
+        // Retrying random numbers needs 1 / (1 - occupancy) tries: 10 at 90%
+        assertTrue(lookupsPerNumber(results, "randomWithRetry", "90") > 8);
+    }
+
+    private static double lookupsPerNumber(Collection<RunResult> results, String benchmark, String occupancy) {
+        RunResult result = results.stream()
+                .filter(r -> r.getParams().getBenchmark().endsWith("." + benchmark))
+                .filter(r -> occupancy.equals(r.getParams().getParam("occupancyPercent")))
+                .findFirst().orElseThrow();
+        return result.getSecondaryResults().get("lookups").getScore() / result.getPrimaryResult().getScore();
+    }
+}
@@ -0,0 +1,109 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.VirtualThreadPinning;
+import com.app.eaglebank.repository.AccountRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AccountNumberAllocatorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AccountRepository accountRepository;
+    private AccountNumberAllocator allocator;
+    private AtomicLong sequence;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        accountRepository = mock(AccountRepository.class);
+        allocator = new AccountNumberAllocator(jdbcTemplate, accountRepository);
+
+        // Behaves like account_number_seq: each call reserves the next block
+        sequence = new AtomicLong();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.getAndAdd(AccountNumberAllocator.BLOCK_SIZE));
+    }
+
+    @Test
+    void toAccountNumber_shouldMapEveryOrdinalToADistinctValidNumber() {
+        BitSet seen = new BitSet(AccountNumberAllocator.SUFFIX_SPACE);
+        for (int ordinal = 0; ordinal < AccountNumberAllocator.SUFFIX_SPACE; ordinal++) {
+            String number = AccountNumberAllocator.toAccountNumber(ordinal);
+            assertTrue(number.length() == 8 && number.startsWith("01"), number);
+
+            int suffix = Integer.parseInt(number.substring(2));
+            assertFalse(seen.get(suffix), "duplicate " + number);
+            seen.set(suffix);
+        }
+        assertEquals(AccountNumberAllocator.SUFFIX_SPACE, seen.cardinality());
+    }
+
+    @Test
+    void nextAccountNumber_shouldReserveOneBlockPerBlockSizeAllocations() {
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < AccountNumberAllocator.BLOCK_SIZE * 3; i++) {
+            numbers.add(allocator.nextAccountNumber());
+        }
+
+        assertEquals(AccountNumberAllocator.BLOCK_SIZE * 3, numbers.size());
+        verify(jdbcTemplate, times(3)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void nextAccountNumber_shouldNotLookSequential() {
+        String first = allocator.nextAccountNumber();
+        String second = allocator.nextAccountNumber();
+
+        assertNotEquals(1, Math.abs(Integer.parseInt(second) - Integer.parseInt(first)));
+    }
+
+    @Test
+    void nextAccountNumber_shouldSkipNumbersAlreadyTaken() {
+        String taken = AccountNumberAllocator.toAccountNumber(0);
+        when(accountRepository.existsByAccountNumber(taken)).thenReturn(true);
+
+        assertEquals(AccountNumberAllocator.toAccountNumber(1), allocator.nextAccountNumber());
+    }
+
+    @Test
+    void nextAccountNumber_shouldFailOnceTheSpaceIsExhausted() {
+        sequence.set(AccountNumberAllocator.SUFFIX_SPACE);
+
+        assertThrows(ResponseStatusException.class, () -> allocator.nextAccountNumber());
+    }
+
+    @Test
+    void nextAccountNumber_shouldNotPinVirtualThreadsWhileReservingABlock() throws Exception {
+        // A slow sequence call parks the virtual thread that holds the allocator's lock
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return sequence.getAndAdd(AccountNumberAllocator.BLOCK_SIZE);
+        });
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        List<RecordedEvent> pinned = VirtualThreadPinning.record(50, () -> {
+            for (int j = 0; j < 10; j++) {
+                numbers.add(allocator.nextAccountNumber());
+            }
+            return null;
+        });
+
+        assertEquals(500, numbers.size());
+        assertTrue(pinned.isEmpty(), VirtualThreadPinning.describe(pinned));
+    }
+}
@@ -0,0 +1,89 @@
+package com.app.eaglebank.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountPostingSequencerTest {
+
+    @Test
+    void stripeCount_shouldRoundUpToPowerOfTwo() {
+        assertEquals(1, new AccountPostingSequencer(1).stripeCount());
+        assertEquals(64, new AccountPostingSequencer(50).stripeCount());
+        assertEquals(256, new AccountPostingSequencer(256).stripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new AccountPostingSequencer(0));
+    }
+
+    @Test
+    void sameAccount_shouldBeSerialized() throws Exception {
+        AccountPostingSequencer sequencer = new AccountPostingSequencer(16);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        sequencer.withAccountLock("01000001", () -> {
+                            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            inside.decrementAndGet();
+                            return null;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, maxInside.get());
+    }
+
+    @Test
+    void differentStripes_shouldProceedInParallel() throws Exception {
+        AccountPostingSequencer sequencer = new AccountPostingSequencer(16);
+        String first = "01000001";
+        String second = first;
+        for (int i = 2; sequencer.stripeIndex(second) == sequencer.stripeIndex(first); i++) {
+            second = String.format("0100%04d", i);
+        }
+        String other = second;
+
+        // Both actions must be inside their locks at the same time for the latch to open
+        CountDownLatch bothInside = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> a = executor.submit(() -> sequencer.withAccountLock(first, () -> awaitBoth(bothInside)));
+            Future<Boolean> b = executor.submit(() -> sequencer.withAccountLock(other, () -> awaitBoth(bothInside)));
+
+            assertTrue(a.get(5, TimeUnit.SECONDS));
+            assertTrue(b.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static boolean awaitBoth(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -7,12 +7,15 @@ import com.app.eaglebank.model.AccountType;
 import com.app.eaglebank.model.User;
 import com.app.eaglebank.repository.AccountRepository;
 import com.app.eaglebank.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
@@ -26,12 +29,17 @@ class AccountServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        AccountCache accountCache = new AccountCache(accountRepository, 1000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        accountService = new AccountService(accountRepository, userRepository, accountNumberAllocator, accountCache,
+                mock(ApplicationEventPublisher.class));
     }
 
     // -------- Test: createAccount --------
@@ -39,6 +47,7 @@ class AccountServiceTest {
     void createAccount_shouldCreateAccountWithDefaults() {
         // Arrange
         User user = new User();
+        user.setId(UUID.randomUUID());
         CreateAccountRequest request = new CreateAccountRequest();
         request.setName("My Savings");
         request.setAccountType(AccountType.PERSONAL);
@@ -46,6 +55,7 @@ class AccountServiceTest {
         // Capture the account saved
         ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
         when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountNumberAllocator.nextAccountNumber()).thenReturn("01482913");
 
         // Act
         Account created = accountService.createAccount(request, user);
@@ -60,7 +70,7 @@ class AccountServiceTest {
         assertThat(saved.getCurrency()).isEqualTo("GBP");
         assertThat(saved.getUser()).isEqualTo(user);
         assertThat(saved.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
-        assertThat(saved.getAccountNumber()).startsWith("01");
+        assertThat(saved.getAccountNumber()).isEqualTo("01482913");
     }
 
     // -------- Test: getAccountsByUserEmail --------
@@ -69,7 +79,8 @@ class AccountServiceTest {
         // Arrange
         String email = "user@example.com";
         User user = new User();
-        List<Account> accounts = List.of(new Account(), new Account());
+        user.setId(UUID.randomUUID());
+        List<Account> accounts = List.of(account(user, "01000001"), account(user, "01000002"));
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(accountRepository.findByUser(user)).thenReturn(accounts);
@@ -112,7 +123,7 @@ class AccountServiceTest {
         Account result = accountService.getUserAccountByAccountNumber(accountNumber, user);
 
         // Assert
-        assertThat(result).isEqualTo(account);
+        assertThat(result.getId()).isEqualTo(account.getId());
     }
 
     @Test
@@ -144,5 +155,54 @@ class AccountServiceTest {
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("You are not authorized");
     }
-}
 
+    // -------- Test: account cache --------
+    @Test
+    void getUserAccountByAccountNumber_shouldServeRepeatLookupsFromTheCache() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        Account account = account(user, "01222222");
+        when(accountRepository.findByAccountNumber("01222222")).thenReturn(Optional.of(account));
+
+        Account first = accountService.getUserAccountByAccountNumber("01222222", user);
+        first.setBalance(BigDecimal.TEN); // callers get copies, so this must not leak into the cache
+        Account second = accountService.getUserAccountByAccountNumber("01222222", user);
+
+        assertThat(second.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        verify(accountRepository, times(1)).findByAccountNumber("01222222");
+    }
+
+    @Test
+    void getAccountsByUser_shouldQueryOnceAndPickUpNewlyOpenedAccounts() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        when(accountRepository.findByUser(user)).thenReturn(List.of(account(user, "01000001")));
+
+        assertThat(accountService.getAccountsByUser(user)).hasSize(1);
+        assertThat(accountService.getAccountsByUser(user)).hasSize(1);
+        verify(accountRepository, times(1)).findByUser(user);
+
+        // Opening an account drops the cached list
+        when(accountNumberAllocator.nextAccountNumber()).thenReturn("01000002");
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        CreateAccountRequest request = new CreateAccountRequest();
+        request.setName("Second");
+        request.setAccountType(AccountType.PERSONAL);
+        Account opened = accountService.createAccount(request, user);
+        when(accountRepository.findByUser(user)).thenReturn(List.of(account(user, "01000001"), opened));
+
+        assertThat(accountService.getAccountsByUser(user)).extracting(Account::getAccountNumber)
+                .containsExactly("01000001", "01000002");
+        // The new account itself was written through, so it needs no lookup
+        accountService.getUserAccountByAccountNumber("01000002", user);
+        verify(accountRepository, never()).findByAccountNumber("01000002");
+    }
+
+    private static Account account(User user, String accountNumber) {
+        Account account = new Account();
+        account.setUser(user);
+        account.setAccountNumber(accountNumber);
+        account.setAccountType(AccountType.PERSONAL);
+        return account;
+    }
+}
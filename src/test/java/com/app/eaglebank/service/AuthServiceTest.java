@@ -0,0 +1,75 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AuthServiceTest {
+
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private AuthService authService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Same shape as the application's encoder: {id}-prefixed hashes, bare bcrypt accepted for matching
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(5);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        authService = new AuthService(userRepository, encoder, eventPublisher);
+
+        user = new User();
+        user.setEmail("user@example.com");
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void authenticate_shouldUpgradeALegacyHashOnSuccessfulLogin() {
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+
+        authService.authenticate("user@example.com", "secret");
+
+        assertTrue(user.getPassword().startsWith("{bcrypt}$2a$05$"), user.getPassword());
+        verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(EntityChangedEvent.userUpdated(user));
+    }
+
+    @Test
+    void authenticate_shouldLeaveACurrentHashAlone() {
+        user.setPassword("{bcrypt}" + new BCryptPasswordEncoder(5).encode("secret"));
+        String stored = user.getPassword();
+
+        authService.authenticate("user@example.com", "secret");
+
+        assertEquals(stored, user.getPassword());
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void authenticate_shouldNotTouchTheHashWhenThePasswordIsWrong() {
+        String stored = new BCryptPasswordEncoder(4).encode("secret");
+        user.setPassword(stored);
+
+        assertThrows(RuntimeException.class, () -> authService.authenticate("user@example.com", "wrong"));
+
+        assertEquals(stored, user.getPassword());
+        verify(userRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,127 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.BalanceSnapshot;
+import com.app.eaglebank.model.Transaction;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.BalanceSnapshotRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import com.app.eaglebank.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Posts real transactions so snapshots are written by the posting path itself
+@DataJpaTest(properties = "eaglebank.snapshots.every-postings=5")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostingTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BalanceSnapshotServiceTest {
+
+    @Autowired private TransactionService transactionService;
+    @Autowired private BalanceSnapshotService balanceSnapshotService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired private UserRepository userRepository;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(TestData.user("Snapshot User", "snapshot@example.com", "+447700900002"));
+
+        account = accountRepository.save(TestData.account(user, "Snapshot Account", "01000300"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceSnapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createTransaction_shouldWriteSnapshotEveryNPostings() {
+        for (int i = 0; i < 12; i++) {
+            transactionService.createTransaction("01000300", request("deposit", "10.00"), user);
+        }
+
+        List<BalanceSnapshot> snapshots = balanceSnapshotRepository.findAll();
+        assertEquals(2, snapshots.size());
+        assertTrue(snapshots.stream().anyMatch(s -> s.getBalance().compareTo(new BigDecimal("50.00")) == 0));
+        assertTrue(snapshots.stream().anyMatch(s -> s.getBalance().compareTo(new BigDecimal("100.00")) == 0));
+    }
+
+    @Test
+    void getBalanceAt_shouldMatchFullReplayAtEveryPosting() {
+        List<Instant> postedAt = new ArrayList<>();
+        List<BigDecimal> expected = new ArrayList<>();
+        BigDecimal running = BigDecimal.ZERO;
+        for (int i = 0; i < 17; i++) {
+            boolean deposit = i % 3 != 2;
+            BigDecimal amount = new BigDecimal(deposit ? "25.00" : "10.00");
+            Transaction txn = transactionService.createTransaction(
+                    "01000300", request(deposit ? "deposit" : "withdrawal", amount.toPlainString()), user);
+            running = deposit ? running.add(amount) : running.subtract(amount);
+            postedAt.add(txn.getTimestamp());
+            expected.add(running);
+        }
+
+        assertFalse(balanceSnapshotRepository.findAll().isEmpty());
+        for (int i = 0; i < postedAt.size(); i++) {
+            assertEquals(0, expected.get(i).compareTo(balanceSnapshotService.getBalanceAt(account, postedAt.get(i))),
+                    "balance after posting " + i);
+        }
+        // Before the first posting the account was empty
+        assertEquals(0, BigDecimal.ZERO.compareTo(
+                balanceSnapshotService.getBalanceAt(account, postedAt.get(0).minusSeconds(1))));
+    }
+
+    @Test
+    void snapshotActiveAccounts_shouldAgreeWithCurrentBalance() {
+        for (int i = 0; i < 3; i++) {
+            transactionService.createTransaction("01000300", request("deposit", "5.00"), user);
+        }
+        assertTrue(balanceSnapshotRepository.findAll().isEmpty());
+
+        // The daily job settles a minute behind, so move the postings safely into the past
+        transactionRepository.findAll().forEach(txn -> {
+            txn.setTimestamp(txn.getTimestamp().minusSeconds(3600));
+            transactionRepository.save(txn);
+        });
+        balanceSnapshotService.snapshotActiveAccounts();
+
+        List<BalanceSnapshot> snapshots = balanceSnapshotRepository.findAll();
+        assertEquals(1, snapshots.size());
+        assertEquals(0, new BigDecimal("15.00").compareTo(snapshots.get(0).getBalance()));
+        assertEquals(0, new BigDecimal("15.00").compareTo(balanceSnapshotService.getBalanceAt(account, Instant.now())));
+    }
+
+    private CreateTransactionRequest request(String type, String amount) {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(new BigDecimal(amount));
+        req.setCurrency("GBP");
+        req.setType(type);
+        req.setReference("Snapshot");
+        return req;
+    }
+}
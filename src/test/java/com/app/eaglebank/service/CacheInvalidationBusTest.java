@@ -0,0 +1,176 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.config.DatabasePlatform;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.security.PrincipalCache;
+import com.app.eaglebank.security.TokenVersionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CacheInvalidationBusTest {
+
+    private static final DatabasePlatform POSTGRES = new DatabasePlatform("PostgreSQL");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcTemplate publisherJdbc;
+    private CacheInvalidationBus publisher;
+
+    private PrincipalCache principalCache;
+    private TokenVersionRegistry tokenVersionRegistry;
+    private AccountCache accountCache;
+    private Cache secondLevelCache;
+    private CacheInvalidationBus receiver;
+
+    @BeforeEach
+    void setUp() {
+        publisherJdbc = mock(JdbcTemplate.class);
+        publisher = new CacheInvalidationBus(publisherJdbc, POSTGRES, new DataSourceProperties(), mock(PrincipalCache.class),
+                mock(TokenVersionRegistry.class), mock(AccountCache.class), entityManagerFactory(mock(Cache.class)),
+                objectMapper, true, Duration.ofSeconds(10), new SimpleMeterRegistry());
+
+        principalCache = mock(PrincipalCache.class);
+        tokenVersionRegistry = mock(TokenVersionRegistry.class);
+        accountCache = mock(AccountCache.class);
+        secondLevelCache = mock(Cache.class);
+        receiver = new CacheInvalidationBus(mock(JdbcTemplate.class), POSTGRES, new DataSourceProperties(), principalCache,
+                tokenVersionRegistry, accountCache, entityManagerFactory(secondLevelCache),
+                objectMapper, true, Duration.ofSeconds(10), meterRegistry);
+    }
+
+    @Test
+    void changesFromAnotherInstance_shouldBeEvictedLocally() {
+        User user = user();
+        Account account = account(user);
+
+        publisher.publish(List.of(EntityChangedEvent.userUpdated(user), EntityChangedEvent.accountUpdated(account),
+                EntityChangedEvent.accountOpened(account)));
+        sentPayloads().forEach(receiver::receive);
+
+        verify(principalCache).invalidateUser("bus@example.com");
+        verify(tokenVersionRegistry).evict(user.getId());
+        verify(secondLevelCache).evictEntityData(User.class, user.getId());
+        verify(accountCache).evict("01000600");
+        verify(secondLevelCache).evictEntityData(Account.class, account.getId());
+        verify(accountCache).evictUser(user.getId());
+        verify(secondLevelCache).evictDefaultQueryRegion();
+        verify(accountCache, never()).invalidateAll();
+    }
+
+    @Test
+    void deletedUser_shouldAlsoDropEmailResolutions() {
+        publisher.publish(List.of(EntityChangedEvent.userDeleted(user())));
+        sentPayloads().forEach(receiver::receive);
+
+        verify(secondLevelCache).evictNaturalIdData(User.class);
+    }
+
+    @Test
+    void ownMessages_shouldBeIgnored() {
+        publisher.publish(List.of(EntityChangedEvent.userUpdated(user())));
+        sentPayloads().forEach(publisher::receive);
+        sentPayloads().forEach(receiver::receive);
+
+        verify(principalCache).invalidateUser("bus@example.com");
+        verifyNoMoreInteractions(principalCache);
+    }
+
+    @Test
+    void largeBatches_shouldBeSplitIntoConsecutiveMessages() {
+        User user = user();
+        List<EntityChangedEvent> changes = new ArrayList<>();
+        for (int i = 0; i < 2 * CacheInvalidationBus.MAX_CHANGES_PER_MESSAGE + 1; i++) {
+            Account account = account(user);
+            account.setAccountNumber(String.format("01%06d", i));
+            changes.add(EntityChangedEvent.accountUpdated(account));
+        }
+
+        publisher.publish(changes);
+        List<String> payloads = sentPayloads();
+        payloads.forEach(receiver::receive);
+
+        assertEquals(3, payloads.size());
+        verify(accountCache, times(changes.size())).evict(anyString());
+        verify(accountCache, never()).invalidateAll();
+    }
+
+    @Test
+    void gapInSequence_shouldFlushEveryCache() throws Exception {
+        receiver.receive(message("node-b", 1, EntityChangedEvent.userUpdated(user())));
+        receiver.receive(message("node-b", 3, EntityChangedEvent.userUpdated(user())));
+
+        verify(principalCache, times(1)).invalidateUser("bus@example.com");
+        verify(principalCache).invalidateAll();
+        verify(tokenVersionRegistry).evictAll();
+        verify(accountCache).invalidateAll();
+        verify(secondLevelCache).evictAllRegions();
+        assertEquals(1, meterRegistry.get("eaglebank.cache.invalidation.missed").counter().count());
+    }
+
+    @Test
+    void heartbeat_shouldFlushOnlyWhenItIsAheadOfTheLastMessage() throws Exception {
+        receiver.receive(message("node-b", 4, EntityChangedEvent.userUpdated(user())));
+        receiver.receive(message("node-b", 4));
+        verify(accountCache, never()).invalidateAll();
+
+        // Message 5 never arrived
+        receiver.receive(message("node-b", 5));
+        verify(accountCache).invalidateAll();
+    }
+
+    private String message(String origin, long sequence, EntityChangedEvent... changes) throws Exception {
+        return objectMapper.writeValueAsString(new CacheInvalidationBus.Message(origin, sequence, List.of(changes)));
+    }
+
+    private List<String> sentPayloads() {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(publisherJdbc, atLeast(0)).query(eq("select pg_notify(?, ?)"), any(RowCallbackHandler.class),
+                eq(CacheInvalidationBus.CHANNEL), payloads.capture());
+        return payloads.getAllValues();
+    }
+
+    private static EntityManagerFactory entityManagerFactory(Cache cache) {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        return entityManagerFactory;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bus@example.com");
+        return user;
+    }
+
+    private static Account account(User user) {
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setUser(user);
+        account.setAccountNumber("01000600");
+        return account;
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.eaglebank.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheLoadsTest {
+
+    private final AsyncCache<String, Integer> cache = Caffeine.newBuilder().buildAsync();
+
+    @Test
+    void concurrentMisses_shouldShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            results.add(executor.submit(() -> CacheLoads.load(cache, "key", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return 42;
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> CacheLoads.load(cache, "key", () -> {
+                    loads.incrementAndGet();
+                    return -1;
+                })));
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedLoad_shouldBeRethrownAndNotCached() {
+        IllegalStateException failure = new IllegalStateException("down");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> CacheLoads.load(cache, "key", () -> { throw failure; })));
+        assertEquals(7, CacheLoads.load(cache, "key", () -> 7));
+    }
+
+    @Test
+    void invalidateDuringLoad_shouldDiscardTheResult() {
+        assertEquals(1, CacheLoads.load(cache, "key", () -> {
+            cache.synchronous().invalidate("key");
+            return 1;
+        }));
+
+        assertNull(cache.getIfPresent("key"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.repository.IdempotencyKeyRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the key table's statements against the migrated schema; each statement commits on its own like the purge job's
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdempotencyKeyRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IdempotencyStoreTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-20T10:00:00Z");
+
+    @Autowired private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(idempotencyKeyRepository, transactionRepository, Duration.ofHours(24),
+                1000, new SimpleMeterRegistry(), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from idempotency_key");
+    }
+
+    @Test
+    void record_shouldRejectASecondUseOfTheSameKey() {
+        UUID userId = UUID.randomUUID();
+        idempotencyStore.record(userId, "key-1", "hash-a", "tan-1");
+
+        assertThrows(DuplicateKeyException.class, () -> idempotencyStore.record(userId, "key-1", "hash-b", "tan-2"));
+        // The same key belongs to nobody else
+        idempotencyStore.record(UUID.randomUUID(), "key-1", "hash-a", "tan-3");
+
+        assertEquals("tan-1", idempotencyKeyRepository.find(userId, "key-1").orElseThrow().transactionId());
+    }
+
+    @Test
+    void purgeExpired_shouldDeleteOnlyExpiredKeysInBatches() {
+        UUID userId = UUID.randomUUID();
+        int expired = 2 * IdempotencyStore.PURGE_BATCH_SIZE + 7;
+        for (int i = 0; i < expired; i++) {
+            idempotencyKeyRepository.insert(userId, "old-" + i, "hash", "tan-" + i, NOW.minus(Duration.ofHours(25)));
+        }
+        idempotencyKeyRepository.insert(userId, "fresh", "hash", "tan-fresh", NOW.minus(Duration.ofHours(23)));
+
+        assertEquals(expired, idempotencyStore.purgeExpired());
+
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from idempotency_key", Integer.class));
+        assertTrue(idempotencyKeyRepository.find(userId, "fresh").isPresent());
+        assertEquals(0, idempotencyStore.purgeExpired());
+    }
+}
@@ -0,0 +1,78 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.BenchmarkRunner;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.security.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tokens validated per second: one parse with the prebuilt parser against the old three parses per request
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "d7cfcd0602e6d0cb70356a70c3aa3caf0ad2b5fa559ff6b402cc8044b3821342";
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        jwtService.init();
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        user.setName("Bench User");
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean parseOnce() {
+        ParsedToken parsed = jwtService.parseToken(token);
+        return jwtService.isTokenValid(parsed, user);
+    }
+
+    // What the filter did before: extractEmail, then isTokenValid re-reading the subject and the expiry,
+    // each building a parser from the String secret
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public boolean parseThreeTimes() {
+        String email = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+        String subject = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+        Claims claims = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+        return email.equals(user.getEmail()) && subject.equals(email) && claims.getExpiration().after(new Date());
+    }
+
+    @Test
+    void parseOnce_shouldValidateMoreTokensPerSecond() {
+        Collection<RunResult> results = BenchmarkRunner.run(JwtServiceBenchmark.class);
+
+        double once = BenchmarkRunner.score(results, "parseOnce");
+        double threeTimes = BenchmarkRunner.score(results, "parseThreeTimes");
+        assertTrue(once > threeTimes * 2, "parseOnce " + once + " ops/s vs parseThreeTimes " + threeTimes + " ops/s");
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.security.ParsedToken;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "d7cfcd0602e6d0cb70356a70c3aa3caf0ad2b5fa559ff6b402cc8044b3821342";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        jwtService.init();
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("test@example.com");
+        user.setName("Test User");
+    }
+
+    @Test
+    void parseToken_shouldExposeSubjectUserIdAndExpiry() {
+        String token = jwtService.generateToken(user);
+
+        ParsedToken parsed = jwtService.parseToken(token);
+
+        assertEquals("test@example.com", parsed.getEmail());
+        assertEquals(user.getId(), parsed.getUserId());
+        assertTrue(parsed.getExpiration().after(new Date()));
+        assertFalse(parsed.isExpired());
+    }
+
+    @Test
+    void isTokenValid_shouldMatchUsername() {
+        ParsedToken parsed = jwtService.parseToken(jwtService.generateToken(user));
+
+        User other = new User();
+        other.setEmail("other@example.com");
+
+        assertTrue(jwtService.isTokenValid(parsed, user));
+        assertFalse(jwtService.isTokenValid(parsed, other));
+    }
+
+    @Test
+    void isTokenValid_shouldRejectRevokedTokenVersion() {
+        ParsedToken parsed = jwtService.parseToken(jwtService.generateToken(user));
+
+        user.setTokenVersion(user.getTokenVersion() + 1);
+
+        assertEquals(0, parsed.getTokenVersion());
+        assertFalse(jwtService.isTokenValid(parsed, user));
+    }
+
+    @Test
+    void parseToken_shouldRejectTokenSignedWithAnotherKey() {
+        JwtService otherService = new JwtService();
+        ReflectionTestUtils.setField(otherService, "secretKey", SECRET.replace('d', 'e'));
+        otherService.init();
+
+        String foreignToken = otherService.generateToken(user);
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(foreignToken));
+    }
+}
@@ -0,0 +1,215 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.BalanceSnapshotRepository;
+import com.app.eaglebank.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Interceptor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestClassOrder;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Postings per second and p50/p99 posting latency through TransactionService from many threads, over 1 to 1000 accounts,
+// first with the former data-access settings and then with the prod ones. Runs on the in-memory test database, so the
+// numbers compare scenarios with each other rather than predict PostgreSQL.
+@Tag("benchmark")
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+public class PostingLoadBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PostingLoadBenchmark.class);
+
+    private static final int THREADS = 16;
+    private static final int WARMUP_POSTINGS = 2_000;
+    private static final int POSTINGS = 8_000;
+
+    // Measured by FormerDataAccess for ProdDataAccess to compare against, by account count
+    private static final Map<Integer, Result> formerResults = new ConcurrentHashMap<>();
+
+    // Without PersistableInterceptor Hibernate selects the linked account to decide whether it is transient
+    @Nested
+    @Order(1)
+    @TestPropertySource(properties =
+            "spring.jpa.properties.hibernate.session_factory.interceptor=com.app.eaglebank.service.PostingLoadBenchmark$NoInterceptor")
+    class FormerDataAccess extends Scenario {
+
+        @Override
+        void report(int accountCount, Result result) {
+            formerResults.put(accountCount, result);
+        }
+    }
+
+    // As in application-prod.properties, on top of the interceptor every profile now registers
+    @Nested
+    @Order(2)
+    @TestPropertySource(properties = {
+            "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+            "spring.jpa.properties.hibernate.order_inserts=true",
+            "spring.jpa.properties.hibernate.order_updates=true",
+            "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true"})
+    class ProdDataAccess extends Scenario {
+
+        @Override
+        void report(int accountCount, Result result) {
+            Result former = formerResults.get(accountCount);
+            assertNotNull(former, "FormerDataAccess runs first");
+            log.info("{} accounts: prod settings post {} postings/s against {} ({}%), {} statements per posting against {}",
+                    accountCount, Math.round(result.postingsPerSecond()), Math.round(former.postingsPerSecond()),
+                    Math.round((result.postingsPerSecond() / former.postingsPerSecond() - 1) * 100),
+                    result.statementsPerPosting(), former.statementsPerPosting());
+
+            assertEquals(3.0, result.statementsPerPosting(), 0.05);
+            assertTrue(result.statementsPerPosting() < former.statementsPerPosting());
+            assertTrue(result.postingsPerSecond() > former.postingsPerSecond(),
+                    result.postingsPerSecond() + " postings/s with prod settings, " + former.postingsPerSecond() + " without");
+        }
+    }
+
+    record Result(double postingsPerSecond, double statementsPerPosting) {
+    }
+
+    // Replaces the interceptor the test configuration registers, leaving transience to Hibernate as before
+    public static class NoInterceptor implements Interceptor {
+    }
+
+    @DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.show-sql=false"})
+    @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+    @Import(PostingTestConfiguration.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    abstract static class Scenario {
+
+        @Autowired private TransactionService transactionService;
+        @Autowired private AccountRepository accountRepository;
+        @Autowired private UserRepository userRepository;
+        @Autowired private BalanceSnapshotRepository balanceSnapshotRepository;
+        @Autowired private AccountCache accountCache;
+        @Autowired private EntityManagerFactory entityManagerFactory;
+        @Autowired private JdbcTemplate jdbcTemplate;
+
+        private User user;
+
+        abstract void report(int accountCount, Result result);
+
+        @BeforeEach
+        void setUp() {
+            user = userRepository.save(TestData.user("Load User", "load@example.com", "+447700900010"));
+        }
+
+        @AfterEach
+        void tearDown() {
+            balanceSnapshotRepository.deleteAll();
+            jdbcTemplate.update("delete from transactions");
+            accountRepository.deleteAll();
+            userRepository.deleteAll();
+            // Both scenarios share the in-memory database, so the next one must not find these accounts cached
+            accountCache.invalidateAll();
+            entityManagerFactory.getCache().evictAll();
+        }
+
+        @ParameterizedTest(name = "{0} accounts")
+        @ValueSource(ints = {1, 10, 1000})
+        void deposits_shouldAllBePostedAtAnyContention(int accountCount) throws Exception {
+            List<String> accountNumbers = new ArrayList<>();
+            for (int i = 0; i < accountCount; i++) {
+                Account account = TestData.account(user, "Load Account", String.format("0130%04d", i));
+                accountNumbers.add(accountRepository.save(account).getAccountNumber());
+            }
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            run(accountNumbers, WARMUP_POSTINGS);
+            statistics.clear();
+            long started = System.nanoTime();
+            long[] latencies = run(accountNumbers, POSTINGS);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            double statementsPerPosting = (double) statistics.getPrepareStatementCount() / POSTINGS;
+
+            Arrays.sort(latencies);
+            log.info("{}: {} accounts, {} threads: {} postings/s, p50 {} us, p99 {} us, {} statements per posting",
+                    getClass().getSimpleName(), accountCount, THREADS, Math.round(POSTINGS / seconds),
+                    percentileMicros(latencies, 50), percentileMicros(latencies, 99), statementsPerPosting);
+
+            // One penny per posting, so any lost update shows up in the total
+            BigDecimal total = jdbcTemplate.queryForObject("select sum(balance) from account", BigDecimal.class);
+            assertEquals(0, new BigDecimal(WARMUP_POSTINGS + POSTINGS).movePointLeft(2).compareTo(total));
+
+            report(accountCount, new Result(POSTINGS / seconds, statementsPerPosting));
+        }
+
+        // Each thread takes every THREADS-th posting, going round the accounts in turn; returns each posting's latency
+        private long[] run(List<String> accountNumbers, int postings) throws Exception {
+            long[] latencies = new long[postings];
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = thread; i < postings; i += THREADS) {
+                            String accountNumber = accountNumbers.get(i % accountNumbers.size());
+                            long start = System.nanoTime();
+                            transactionService.createTransaction(accountNumber, deposit(), user);
+                            latencies[i] = System.nanoTime() - start;
+                        }
+                        return null;
+                    }));
+                }
+                // Future.get also publishes each thread's writes to the array
+                for (Future<?> future : futures) {
+                    future.get(5, TimeUnit.MINUTES);
+                }
+            } finally {
+                executor.shutdown();
+            }
+            return latencies;
+        }
+    }
+
+    // Nearest-rank percentile of sorted nanosecond latencies
+    private static long percentileMicros(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(rank, 1) - 1]);
+    }
+
+    private static CreateTransactionRequest deposit() {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(new BigDecimal("0.01"));
+        req.setCurrency("GBP");
+        req.setType("deposit");
+        req.setReference("Load");
+        return req;
+    }
+}
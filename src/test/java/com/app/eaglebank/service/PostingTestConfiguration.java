@@ -0,0 +1,15 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.repository.IdempotencyKeyRepository;
+import com.app.eaglebank.repository.TransactionNodeLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+// The services a posting goes through, for @DataJpaTest slices that post real transactions
+@TestConfiguration(proxyBeanMethods = false)
+@Import({TransactionService.class, AccountPostingSequencer.class, BalanceSnapshotService.class,
+        TransactionIdGenerator.class, TransactionNodeLease.class, TransactionNodeLeaseRepository.class,
+        AccountCache.class, IdempotencyStore.class, IdempotencyKeyRepository.class, SimpleMeterRegistry.class})
+public class PostingTestConfiguration {
+}
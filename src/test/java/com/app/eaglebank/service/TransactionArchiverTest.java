@@ -0,0 +1,149 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.config.DatabasePlatform;
+import com.app.eaglebank.dto.responses.TransactionPageResponse;
+import com.app.eaglebank.dto.responses.TransactionResponse;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.Transaction;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.ArchivedTransactionRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import com.app.eaglebank.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Moves real rows between tiers and reads them back through the history and balance paths
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostingTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransactionArchiverTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-11-20T10:00:00Z"), ZoneOffset.UTC);
+
+    @Autowired private TransactionService transactionService;
+    @Autowired private BalanceSnapshotService balanceSnapshotService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private ArchivedTransactionRepository archivedTransactionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private DataSource dataSource;
+
+    private DatabasePlatform databasePlatform;
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Read from the test database, so the archiver takes its non-PostgreSQL path without the advisory lock
+        databasePlatform = new DatabasePlatform(dataSource);
+
+        user = userRepository.save(TestData.user("Archive User", "archive@example.com", "+447700900004"));
+
+        account = accountRepository.save(TestData.account(user, "Archive Account", "01000500"));
+
+        // Ten postings older than the 12-month cutoff (2024-11-01) and ten newer ones
+        Instant oldStart = Instant.parse("2024-10-30T23:00:00Z");
+        Instant newStart = Instant.parse("2025-06-01T00:00:00Z");
+        for (int i = 0; i < 10; i++) {
+            save(String.format("tan-old%03d", i), oldStart.plusSeconds(i * 1800L));
+            save(String.format("tan-new%03d", i), newStart.plusSeconds(i * 1800L));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from transactions_archive");
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void archiveOldTransactions_shouldMoveOnlyRowsBeforeTheCutoff() {
+        long moved = new TransactionArchiver(jdbcTemplate, transactionManager, databasePlatform, CLOCK, 12).archiveOldTransactions();
+
+        assertEquals(10, moved);
+        assertEquals(10, transactionRepository.count());
+        assertEquals(10, archivedTransactionRepository.count());
+        assertTrue(transactionRepository.findAll().stream().allMatch(t -> t.getId().startsWith("tan-new")));
+    }
+
+    @Test
+    void archiveOldTransactions_shouldSkipRowsAlreadyInTheArchive() {
+        jdbcTemplate.update("insert into transactions_archive (id, amount, currency, type, reference, timestamp, account_id) " +
+                "select id, amount, currency, type, reference, timestamp, account_id from transactions where id = 'tan-old000'");
+
+        long moved = new TransactionArchiver(jdbcTemplate, transactionManager, databasePlatform, CLOCK, 12).archiveOldTransactions();
+
+        assertEquals(10, moved);
+        assertEquals(10, transactionRepository.count());
+        assertEquals(10, archivedTransactionRepository.count());
+    }
+
+    @Test
+    void archiveOldTransactions_shouldDoNothingWhenDisabled() {
+        assertEquals(0, new TransactionArchiver(jdbcTemplate, transactionManager, databasePlatform, CLOCK, 0).archiveOldTransactions());
+        assertEquals(20, transactionRepository.count());
+    }
+
+    @Test
+    void historyAndBalance_shouldReadThroughTheArchive() {
+        new TransactionArchiver(jdbcTemplate, transactionManager, databasePlatform, CLOCK, 12).archiveOldTransactions();
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPageResponse page = transactionService.getTransactionPage("01000500", user, 3, cursor);
+            page.getTransactions().stream().map(TransactionResponse::getId).forEach(ids::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            expected.add(String.format("tan-new%03d", i));
+        }
+        for (int i = 9; i >= 0; i--) {
+            expected.add(String.format("tan-old%03d", i));
+        }
+        assertEquals(expected, ids);
+
+        assertEquals(0, new BigDecimal("200.00").compareTo(balanceSnapshotService.getBalanceAt(account, CLOCK.instant())));
+        assertEquals(0, new BigDecimal("100.00").compareTo(
+                balanceSnapshotService.getBalanceAt(account, Instant.parse("2025-01-01T00:00:00Z"))));
+    }
+
+    private void save(String id, Instant timestamp) {
+        Transaction txn = new Transaction();
+        txn.setId(id);
+        txn.setAccount(account);
+        txn.setAmount(BigDecimal.TEN);
+        txn.setCurrency("GBP");
+        txn.setType("deposit");
+        txn.setTimestamp(timestamp);
+        transactionRepository.save(txn);
+    }
+}
@@ -0,0 +1,148 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.dto.requests.BatchTransactionItem;
+import com.app.eaglebank.dto.responses.TransactionBatchResponse;
+import com.app.eaglebank.exception.ConflictException;
+import com.app.eaglebank.exception.ResourceNotFoundException;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.Transaction;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.TransactionBatchRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionBatchServiceTest {
+
+    private AccountRepository accountRepository;
+    private TransactionBatchRepository transactionBatchRepository;
+    private TransactionBatchService batchService;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        transactionBatchRepository = mock(TransactionBatchRepository.class);
+        batchService = new TransactionBatchService(accountRepository, mock(AccountCache.class), transactionBatchRepository,
+                new AccountPostingSequencer(16), mock(BalanceSnapshotService.class),
+                new TransactionIdGenerator(1, System::currentTimeMillis), mock(PlatformTransactionManager.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(ApplicationEventPublisher.class));
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+
+        account = new Account();
+        account.setUser(user);
+        account.setAccountNumber("01000001");
+        account.setBalance(BigDecimal.valueOf(100));
+
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.applyBalanceDelta(any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createBatch_shouldApplyItemsInOrderWithOneInsertAndOneBalanceUpdate() {
+        List<BatchTransactionItem> items = List.of(
+                item("deposit", "50"),
+                item("withdrawal", "120"),
+                item("withdrawal", "100")); // only 30 left at this point
+
+        TransactionBatchResponse response = batchService.createBatch("01000001", items, user);
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals("success", response.getResults().get(0).getStatus());
+        assertEquals("success", response.getResults().get(1).getStatus());
+        assertEquals("Insufficient balance for withdrawal", response.getResults().get(2).getError());
+
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(transactionBatchRepository, times(1)).insertAll(inserted.capture());
+        assertEquals(2, inserted.getValue().size());
+        verify(accountRepository, times(1)).applyBalanceDelta(eq(account.getId()), eq(BigDecimal.valueOf(-70)), any(), any());
+        // Stored at microsecond precision, so the response must not carry more
+        inserted.getValue().forEach(t -> assertEquals(0, t.getTimestamp().getNano() % 1000));
+    }
+
+    @Test
+    void createBatch_shouldReportInvalidItemsWithoutRejectingTheBatch() {
+        BatchTransactionItem invalid = item("transfer", "10");
+
+        TransactionBatchResponse response = batchService.createBatch("01000001",
+                List.of(invalid, item("deposit", "10")), user);
+
+        assertEquals("failed", response.getResults().get(0).getStatus());
+        assertTrue(response.getResults().get(0).getError().contains("type"));
+        assertEquals("success", response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void createBatch_multiAccount_shouldFailItemsForUnknownOrForeignAccounts() {
+        Account foreign = new Account();
+        User otherUser = new User();
+        otherUser.setId(UUID.randomUUID());
+        foreign.setUser(otherUser);
+        foreign.setAccountNumber("01000002");
+        foreign.setBalance(BigDecimal.valueOf(100));
+        when(accountRepository.findCurrentByAccountNumber("01000002")).thenReturn(Optional.of(foreign));
+        when(accountRepository.findCurrentByAccountNumber("01000003")).thenReturn(Optional.empty());
+
+        TransactionBatchResponse response = batchService.createBatch(List.of(
+                item("01000001", "deposit", "10"),
+                item("01000002", "deposit", "10"),
+                item("01000003", "deposit", "10"),
+                item(null, "deposit", "10")), user);
+
+        assertEquals("success", response.getResults().get(0).getStatus());
+        assertEquals("Access denied", response.getResults().get(1).getError());
+        assertEquals("Account not found", response.getResults().get(2).getError());
+        assertTrue(response.getResults().get(3).getError().contains("accountNumber"));
+        verify(accountRepository, never()).applyBalanceDelta(eq(foreign.getId()), any(), any(), any());
+    }
+
+    @Test
+    void createBatch_shouldThrowWhenPathAccountDoesNotExist() {
+        when(accountRepository.findCurrentByAccountNumber("00000000")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> batchService.createBatch("00000000", List.of(item("deposit", "10")), user));
+        verifyNoInteractions(transactionBatchRepository);
+    }
+
+    @Test
+    void createBatch_shouldRollBackWhenBalanceChangedConcurrently() {
+        when(accountRepository.applyBalanceDelta(any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(ConflictException.class,
+                () -> batchService.createBatch("01000001", List.of(item("withdrawal", "100")), user));
+        verifyNoInteractions(transactionBatchRepository);
+    }
+
+    private static BatchTransactionItem item(String type, String amount) {
+        return item(null, type, amount);
+    }
+
+    private static BatchTransactionItem item(String accountNumber, String type, String amount) {
+        BatchTransactionItem item = new BatchTransactionItem();
+        item.setAccountNumber(accountNumber);
+        item.setAmount(new BigDecimal(amount));
+        item.setCurrency("GBP");
+        item.setType(type);
+        item.setReference("Batch");
+        return item;
+    }
+}
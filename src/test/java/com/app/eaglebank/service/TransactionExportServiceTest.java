@@ -0,0 +1,145 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.dto.responses.TransactionResponse;
+import com.app.eaglebank.exception.BadRequestException;
+import com.app.eaglebank.exception.ResourceNotFoundException;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.ArchivedTransactionRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import com.app.eaglebank.service.TransactionExportService.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionExportServiceTest {
+
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private ArchivedTransactionRepository archivedTransactionRepository;
+    private TransactionExportService exportService;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        archivedTransactionRepository = mock(ArchivedTransactionRepository.class);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new TransactionExportService(
+                new AccountCache(accountRepository, 1000, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+                transactionRepository,
+                archivedTransactionRepository, mock(PlatformTransactionManager.class), objectMapper);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+
+        account = new Account();
+        account.setUser(user);
+        account.setAccountNumber("01000001");
+
+        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+    }
+
+    @Test
+    void exportNdjson_shouldWriteOneJsonObjectPerLine() throws Exception {
+        when(transactionRepository.streamByAccountId(account.getId())).thenReturn(Stream.of(
+                row("tan-1", "Salary"), row("tan-2", "Rent")));
+
+        String output = export(ExportFormat.NDJSON);
+
+        String[] lines = output.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":\"tan-1\""));
+        assertTrue(lines[1].contains("\"reference\":\"Rent\""));
+        assertTrue(output.endsWith("\n"));
+    }
+
+    @Test
+    void exportCsv_shouldWriteHeaderAndEscapeFreeText() throws Exception {
+        when(transactionRepository.streamByAccountId(account.getId())).thenReturn(Stream.of(
+                row("tan-1", "Rent, March"), row("tan-2", "Say \"hi\"")));
+
+        String[] lines = export(ExportFormat.CSV).split("\n");
+
+        assertEquals("id,amount,currency,type,reference,userId,createdTimestamp", lines[0]);
+        assertTrue(lines[1].startsWith("tan-1,10.00,GBP,deposit,\"Rent, March\","));
+        assertTrue(lines[2].contains(",\"Say \"\"hi\"\"\","));
+    }
+
+    @Test
+    void export_shouldWriteArchivedRowsBeforeHotRows() throws Exception {
+        when(archivedTransactionRepository.streamByAccountId(account.getId())).thenReturn(Stream.of(row("tan-1", "Old")));
+        when(transactionRepository.streamByAccountId(account.getId())).thenReturn(Stream.of(row("tan-2", "New")));
+
+        String[] lines = export(ExportFormat.CSV).split("\n");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("tan-1,"));
+        assertTrue(lines[2].startsWith("tan-2,"));
+    }
+
+    @Test
+    void export_shouldCloseTheCursorAfterManyChunks() throws Exception {
+        int rows = TransactionExportService.CHUNK_SIZE * 3 + 7;
+        Stream<TransactionResponse> stream = IntStream.range(0, rows).mapToObj(i -> row("tan-" + i, null));
+        boolean[] closed = {false};
+        when(transactionRepository.streamByAccountId(account.getId()))
+                .thenReturn(stream.onClose(() -> closed[0] = true));
+
+        String output = export(ExportFormat.CSV);
+
+        assertEquals(rows + 1, output.split("\n").length);
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void export_shouldRejectOtherUsersAndMissingAccounts() {
+        User intruder = new User();
+        intruder.setId(UUID.randomUUID());
+        when(accountRepository.findByAccountNumber("00000000")).thenReturn(Optional.empty());
+
+        assertThrows(SecurityException.class,
+                () -> exportService.exportTransactions("01000001", intruder, ExportFormat.CSV));
+        assertThrows(ResourceNotFoundException.class,
+                () -> exportService.exportTransactions("00000000", user, ExportFormat.CSV));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void exportFormat_shouldRejectUnknownFormats() {
+        assertEquals(ExportFormat.CSV, ExportFormat.from("CSV"));
+        assertThrows(BadRequestException.class, () -> ExportFormat.from("xml"));
+    }
+
+    private String export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportTransactions("01000001", user, format).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private TransactionResponse row(String id, String reference) {
+        return new TransactionResponse(id, new BigDecimal("10.00"), "GBP", "deposit", reference,
+                user.getId(), Instant.parse("2025-01-01T10:00:00Z"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.BenchmarkRunner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ids per second and bytes allocated per id, against the UUID string mangling it replaced
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransactionIdGeneratorBenchmark {
+
+    private final TransactionIdGenerator generator = new TransactionIdGenerator(7, System::currentTimeMillis);
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+
+    // Every request thread shares the one generator
+    @Benchmark
+    @Threads(4)
+    public String nextIdFourThreads() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String uuidSubstring() {
+        return "tan-" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+
+    @Test
+    void nextId_shouldBeFasterAndAllocateLessThanUuidSubstring() {
+        Collection<RunResult> results = BenchmarkRunner.run(TransactionIdGeneratorBenchmark.class, GCProfiler.class);
+
+        double ids = BenchmarkRunner.score(results, "nextId");
+        double uuids = BenchmarkRunner.score(results, "uuidSubstring");
+        assertTrue(ids > uuids, "nextId " + ids + " ops/s vs uuidSubstring " + uuids + " ops/s");
+
+        // Little more than the id String itself, against the intermediate strings of the old format
+        double idBytes = BenchmarkRunner.score(results, "nextId", "gc.alloc.rate.norm");
+        double uuidBytes = BenchmarkRunner.score(results, "uuidSubstring", "gc.alloc.rate.norm");
+        assertTrue(idBytes < uuidBytes / 2, "nextId " + idBytes + " B/op vs uuidSubstring " + uuidBytes + " B/op");
+    }
+}
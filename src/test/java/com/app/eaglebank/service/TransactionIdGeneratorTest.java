@@ -0,0 +1,104 @@
+package com.app.eaglebank.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionIdGeneratorTest {
+
+    // Several seconds on its own, so only run with -Pslow-tests
+    @Test
+    @Tag("slow")
+    void nextValue_shouldBeStrictlyIncreasingOver100MillionIds() {
+        TransactionIdGenerator generator = new TransactionIdGenerator(7, System::currentTimeMillis);
+
+        // Strictly increasing values cannot collide, so this proves uniqueness without storing them
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < 100_000_000; i++) {
+            long value = generator.nextValue();
+            if (value <= previous) {
+                fail("id " + i + " did not increase: " + previous + " then " + value);
+            }
+            previous = value;
+        }
+    }
+
+    @Test
+    void nextId_shouldSortAsStringsInGenerationOrder() {
+        TransactionIdGenerator generator = new TransactionIdGenerator(7, System::currentTimeMillis);
+
+        String previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            String id = generator.nextId();
+            assertTrue(id.matches("^tan-[0-9A-Z]{13}$"), id);
+            assertTrue(id.compareTo(previous) > 0, previous + " then " + id);
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_shouldStayMonotonicWhenTheClockGoesBackwards() {
+        AtomicLong now = new AtomicLong(1_750_000_000_000L);
+        TransactionIdGenerator generator = new TransactionIdGenerator(7, now::get);
+
+        String before = generator.nextId();
+        now.addAndGet(-60_000);
+        String after = generator.nextId();
+
+        assertTrue(after.compareTo(before) > 0);
+    }
+
+    @Test
+    void nextId_shouldBeUniqueAcrossThreads() throws Exception {
+        TransactionIdGenerator generator = new TransactionIdGenerator(7, System::currentTimeMillis);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void nextId_shouldDifferBetweenNodesAtTheSameInstant() {
+        Set<String> ids = new HashSet<>();
+        for (int node = 0; node <= TransactionIdGenerator.MAX_NODE_ID; node++) {
+            ids.add(new TransactionIdGenerator(node, () -> 1_750_000_000_000L).nextId());
+        }
+
+        assertEquals(TransactionIdGenerator.MAX_NODE_ID + 1, ids.size());
+    }
+
+    @Test
+    void constructor_shouldRejectOutOfRangeNodeIds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TransactionIdGenerator(TransactionIdGenerator.MAX_NODE_ID + 1, System::currentTimeMillis));
+    }
+}
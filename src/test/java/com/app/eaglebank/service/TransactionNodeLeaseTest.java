@@ -0,0 +1,101 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.repository.TransactionNodeLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Leases are taken with single auto-committed statements, as on a real startup
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TransactionNodeLeaseRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransactionNodeLeaseTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Autowired private TransactionNodeLeaseRepository leaseRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong now = new AtomicLong(1_750_000_000_000L);
+
+    @BeforeEach
+    void setUp() {
+        // Other test contexts hold leases of their own
+        jdbcTemplate.update("delete from transaction_node_lease");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from transaction_node_lease");
+    }
+
+    @Test
+    void runningInstances_shouldNeverShareANodeId() {
+        TransactionNodeLease first = lease(-1);
+        TransactionNodeLease second = lease(-1);
+
+        assertEquals(0, first.nodeId());
+        assertEquals(1, second.nodeId());
+    }
+
+    @Test
+    void configuredNodeId_shouldFailStartupWhileAnotherInstanceHoldsIt() {
+        assertEquals(5, lease(5).nodeId());
+
+        assertThrows(IllegalStateException.class, () -> lease(5));
+    }
+
+    @Test
+    void expiredLease_shouldBeTakenOverAndTheOldHolderStopGenerating() {
+        TransactionNodeLease crashed = lease(-1);
+        TransactionIdGenerator crashedGenerator =
+                new TransactionIdGenerator(crashed.nodeId(), now::get, crashed::validUntilMillis);
+        jdbcTemplate.update("update transaction_node_lease set expires_at = expires_at - interval '2' hour");
+
+        TransactionNodeLease replacement = lease(-1);
+        assertEquals(crashed.nodeId(), replacement.nodeId());
+
+        // The old holder finds out on its next renewal and refuses to generate ids from then on
+        crashed.renew();
+        assertThrows(IllegalStateException.class, crashedGenerator::nextId);
+    }
+
+    @Test
+    void generator_shouldRefuseIdsOnceTheLeaseCanNoLongerBeVouchedFor() {
+        TransactionNodeLease lease = lease(-1);
+        TransactionIdGenerator generator = new TransactionIdGenerator(lease.nodeId(), now::get, lease::validUntilMillis);
+        generator.nextId();
+
+        // Renewals stopped (say the database is unreachable): ids stop well before the lease could be taken over
+        now.addAndGet(TTL.toMillis() / 2 + 1);
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        lease.renew();
+        generator.nextId();
+    }
+
+    @Test
+    void releasedNodeId_shouldBeFreeImmediately() {
+        TransactionNodeLease lease = lease(3);
+        lease.destroy();
+
+        assertEquals(3, lease(3).nodeId());
+    }
+
+    private TransactionNodeLease lease(int requestedNodeId) {
+        return new TransactionNodeLease(leaseRepository, requestedNodeId, TTL, now::get);
+    }
+}
@@ -0,0 +1,108 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.config.DatabasePlatform;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionPartitionManagerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-11-20T10:00:00Z"), ZoneOffset.UTC);
+
+    private JdbcTemplate jdbcTemplate;
+    private DatabasePlatform databasePlatform;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maintainPartitions_shouldCreateCurrentAndUpcomingMonthsOnPostgres() {
+        onDatabase("PostgreSQL", true);
+
+        new TransactionPartitionManager(jdbcTemplate, databasePlatform, CLOCK, 2, 0).maintainPartitions();
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).execute(ddl.capture());
+        assertEquals(List.of(
+                "create table if not exists transactions_p2025_11 partition of transactions"
+                        + " for values from ('2025-11-01 00:00:00+00') to ('2025-12-01 00:00:00+00')",
+                "create table if not exists transactions_p2025_12 partition of transactions"
+                        + " for values from ('2025-12-01 00:00:00+00') to ('2026-01-01 00:00:00+00')",
+                "create table if not exists transactions_p2026_01 partition of transactions"
+                        + " for values from ('2026-01-01 00:00:00+00') to ('2026-02-01 00:00:00+00')"),
+                ddl.getAllValues());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+
+    @Test
+    void maintainPartitions_shouldDetachOnlyMonthlyPartitionsOlderThanRetention() {
+        onDatabase("PostgreSQL", true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "transactions_default", "transactions_p2025_04", "transactions_p2025_05", "transactions_p2025_11"));
+        archived("transactions_p2025_04");
+
+        new TransactionPartitionManager(jdbcTemplate, databasePlatform, CLOCK, 0, 6).maintainPartitions();
+
+        verify(jdbcTemplate).execute("alter table transactions detach partition transactions_p2025_04");
+        verify(jdbcTemplate, never()).execute("alter table transactions detach partition transactions_p2025_05");
+        verify(jdbcTemplate, never()).execute("alter table transactions detach partition transactions_default");
+    }
+
+    @Test
+    void maintainPartitions_shouldKeepOldPartitionsAttachedUntilTheirRowsAreArchived() {
+        onDatabase("PostgreSQL", true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "transactions_p2025_02", "transactions_p2025_03"));
+        archived("transactions_p2025_02");
+        when(jdbcTemplate.queryForObject("select exists (select 1 from transactions_p2025_03)", Boolean.class))
+                .thenReturn(true);
+
+        new TransactionPartitionManager(jdbcTemplate, databasePlatform, CLOCK, 0, 6).maintainPartitions();
+
+        verify(jdbcTemplate).execute("alter table transactions detach partition transactions_p2025_02");
+        verify(jdbcTemplate, never()).execute("alter table transactions detach partition transactions_p2025_03");
+    }
+
+    @Test
+    void maintainPartitions_shouldDoNothingWithoutAPartitionedTable() {
+        onDatabase("H2", false);
+
+        new TransactionPartitionManager(jdbcTemplate, databasePlatform, CLOCK, 3, 6).maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void monthOf_shouldRoundTripPartitionNames() {
+        YearMonth month = YearMonth.of(2024, 2);
+
+        assertEquals(month, TransactionPartitionManager.monthOf(TransactionPartitionManager.partitionName(month)));
+        assertNull(TransactionPartitionManager.monthOf("transactions_default"));
+        assertNull(TransactionPartitionManager.monthOf("transactions_pold"));
+    }
+
+    // Every row of the partition has been moved to transactions_archive
+    private void archived(String partition) {
+        when(jdbcTemplate.queryForObject("select exists (select 1 from " + partition + ")", Boolean.class))
+                .thenReturn(false);
+    }
+
+    private void onDatabase(String product, boolean partitioned) {
+        databasePlatform = new DatabasePlatform(product);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(partitioned);
+    }
+}
@@ -0,0 +1,243 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.VirtualThreadPinning;
+import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.User;
+import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.BalanceSnapshotRepository;
+import com.app.eaglebank.repository.TransactionRepository;
+import com.app.eaglebank.repository.UserRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs real concurrent postings against the database; each posting commits on its own
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostingTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransactionServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int POSTINGS_PER_THREAD = 50;
+
+    @Autowired private TransactionService transactionService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = userRepository.save(TestData.user("Stress User", "stress@example.com", "+447700900000"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from idempotency_key");
+        balanceSnapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentDepositsOnHotAccount_shouldNotLoseUpdates() throws Exception {
+        Account account = accountRepository.save(newAccount("01000001", BigDecimal.ZERO));
+
+        runConcurrently(thread -> transactionService.createTransaction("01000001", request("deposit", "1.00"), user));
+
+        int expectedPostings = THREADS * POSTINGS_PER_THREAD;
+        assertEquals(0, new BigDecimal(expectedPostings).compareTo(balanceOf(account)));
+        assertEquals(expectedPostings, transactionRepository.count());
+    }
+
+    @Test
+    void concurrentWithdrawalsOnHotAccount_shouldNeverOverdraw() throws Exception {
+        // Enough funds for exactly half of the attempted withdrawals
+        int affordable = THREADS * POSTINGS_PER_THREAD / 2;
+        Account account = accountRepository.save(newAccount("01000002", new BigDecimal(affordable)));
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            try {
+                transactionService.createTransaction("01000002", request("withdrawal", "1.00"), user);
+            } catch (Exception e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(account)));
+        assertEquals(affordable, transactionRepository.count());
+        assertEquals(THREADS * POSTINGS_PER_THREAD - affordable, rejected.get());
+    }
+
+    @Test
+    void concurrentDepositsOnManyColdAccounts_shouldNotLoseUpdates() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            accounts.add(accountRepository.save(newAccount(String.format("0120%04d", i), BigDecimal.ZERO)));
+        }
+
+        runConcurrently(thread -> transactionService.createTransaction(
+                accounts.get(thread).getAccountNumber(), request("deposit", "2.00"), user));
+
+        for (Account account : accounts) {
+            assertEquals(0, new BigDecimal(2 * POSTINGS_PER_THREAD).compareTo(balanceOf(account)));
+        }
+        assertEquals((long) THREADS * POSTINGS_PER_THREAD, transactionRepository.count());
+    }
+
+    @Test
+    void concurrentRetriesWithOneIdempotencyKey_shouldPostOnce() throws Exception {
+        Account account = accountRepository.save(newAccount("01000003", BigDecimal.ZERO));
+        Map<String, Set<String>> transactionIdsByKey = new ConcurrentHashMap<>();
+
+        // Every thread sends the same sequence of keys, so each key arrives THREADS times at once
+        AtomicInteger[] attempts = new AtomicInteger[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            attempts[t] = new AtomicInteger();
+        }
+        runConcurrently(thread -> {
+            String key = "retry-" + attempts[thread].getAndIncrement();
+            String id = transactionService.createTransaction("01000003", request("deposit", "1.00"), user, key).getId();
+            return transactionIdsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        });
+
+        assertEquals(0, new BigDecimal(POSTINGS_PER_THREAD).compareTo(balanceOf(account)));
+        assertEquals(POSTINGS_PER_THREAD, transactionRepository.count());
+        assertEquals(POSTINGS_PER_THREAD, transactionIdsByKey.size());
+        transactionIdsByKey.values().forEach(ids -> assertEquals(1, ids.size()));
+    }
+
+    // The conditional UPDATE alone, without the sequencer ordering postings in memory first
+    @Test
+    void concurrentBalanceDeltasBypassingTheSequencer_shouldNeverOverdraw() throws Exception {
+        int affordable = THREADS * POSTINGS_PER_THREAD / 2;
+        Account account = accountRepository.save(newAccount("01000004", new BigDecimal(affordable)));
+        AtomicInteger applied = new AtomicInteger();
+
+        runConcurrently(thread -> applied.addAndGet(applyBalanceDelta(account, "-1.00")));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(account)));
+        assertEquals(affordable, applied.get());
+    }
+
+    @Test
+    void concurrentBalanceDeltasBypassingTheSequencer_shouldNeverExceedTheMaximumBalance() throws Exception {
+        int room = THREADS * POSTINGS_PER_THREAD / 2;
+        BigDecimal opening = TransactionService.MAX_BALANCE.subtract(new BigDecimal(room));
+        Account account = accountRepository.save(newAccount("01000005", opening));
+        AtomicInteger applied = new AtomicInteger();
+
+        runConcurrently(thread -> applied.addAndGet(applyBalanceDelta(account, "1.00")));
+
+        assertEquals(0, TransactionService.MAX_BALANCE.compareTo(balanceOf(account)));
+        assertEquals(room, applied.get());
+    }
+
+    // The sequencer, TransactionTemplate, applyBalanceDelta and the connection pool against the real test database
+    @Test
+    void concurrentDepositsOnVirtualThreads_shouldNotPinTheirCarriers() throws Exception {
+        Account hot = accountRepository.save(newAccount("01000006", BigDecimal.ZERO));
+        Account cold = accountRepository.save(newAccount("01000007", BigDecimal.ZERO));
+        AtomicInteger postings = new AtomicInteger();
+
+        // More threads than pooled connections, half of them queueing for one account
+        List<RecordedEvent> pinned = VirtualThreadPinning.record(THREADS * 4, () -> {
+            for (int i = 0; i < 10; i++) {
+                Account account = postings.getAndIncrement() % 2 == 0 ? hot : cold;
+                transactionService.createTransaction(account.getAccountNumber(), request("deposit", "1.00"), user);
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * 4 * 10, transactionRepository.count());
+        assertEquals(0, new BigDecimal(THREADS * 4 * 10).compareTo(balanceOf(hot).add(balanceOf(cold))));
+        assertTrue(pinned.isEmpty(), VirtualThreadPinning.describe(pinned));
+    }
+
+    private int applyBalanceDelta(Account account, String delta) {
+        return transactionTemplate.execute(status -> accountRepository.applyBalanceDelta(
+                account.getId(), new BigDecimal(delta), TransactionService.MAX_BALANCE, Instant.now()));
+    }
+
+    private interface Posting {
+        Object post(int thread) throws Exception;
+    }
+
+    private void runConcurrently(Posting posting) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Callable<Object> task = () -> {
+                    for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                        posting.post(thread);
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BigDecimal balanceOf(Account account) {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow().getBalance();
+    }
+
+    private CreateTransactionRequest request(String type, String amount) {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(new BigDecimal(amount));
+        req.setCurrency("GBP");
+        req.setType(type);
+        req.setReference("Stress");
+        return req;
+    }
+
+    private Account newAccount(String accountNumber, BigDecimal balance) {
+        Account account = TestData.account(user, "Stress Account", accountNumber);
+        account.setBalance(balance);
+        return account;
+    }
+}
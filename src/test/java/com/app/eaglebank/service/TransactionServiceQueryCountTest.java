@@ -0,0 +1,131 @@
+package com.app.eaglebank.service;
+
+import com.app.eaglebank.TestData;
+import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.dto.responses.TransactionPageResponse;
+import com.app.eaglebank.model.Account;
+import com.app.eaglebank.model.Transaction;
+import com.app.eaglebank.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Guards the history endpoint against N+1 loading of accounts and users
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostingTestConfiguration.class)
+public class TransactionServiceQueryCountTest {
+
+    @Autowired private TransactionService transactionService;
+    @Autowired private AccountCache accountCache;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(TestData.user("Query User", "query@example.com", "+447700900001"));
+
+        Account account = TestData.account(user, "Query Account", "01000100");
+        entityManager.persist(account);
+
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < 40; i++) {
+            Transaction txn = new Transaction();
+            txn.setId(String.format("tan-%012d", i));
+            txn.setAccount(account);
+            txn.setAmount(BigDecimal.ONE);
+            txn.setCurrency("GBP");
+            txn.setType("deposit");
+            txn.setTimestamp(start.plusSeconds(i));
+            entityManager.persist(txn);
+        }
+
+        // Start every listing from an empty persistence context and a cold account cache
+        entityManager.flush();
+        entityManager.clear();
+        accountCache.invalidateAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getTransactionPage_shouldRunFixedNumberOfStatementsRegardlessOfPageSize() {
+        TransactionPageResponse small = transactionService.getTransactionPage("01000100", user, 5, null);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        entityManager.clear();
+        statistics.clear();
+
+        TransactionPageResponse large = transactionService.getTransactionPage("01000100", user, 30, null);
+        long largePageStatements = statistics.getPrepareStatementCount();
+
+        entityManager.clear();
+        statistics.clear();
+
+        // The last page of hot rows also reads through to the archive
+        TransactionPageResponse last = transactionService.getTransactionPage("01000100", user, 50, null);
+        long lastPageStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(5, small.getTransactions().size());
+        assertEquals(30, large.getTransactions().size());
+        assertEquals(40, last.getTransactions().size());
+
+        // The account lookup on a cold cache, one for the page, and one more for the archive on a short page
+        assertEquals(2, smallPageStatements);
+        assertEquals(1, largePageStatements);
+        assertEquals(2, lastPageStatements);
+        // Transactions and users are never loaded, and the account now comes from the cache
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void createTransaction_shouldInsertWithoutSelectingTheNewRowFirst() {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency("GBP");
+        request.setType("deposit");
+
+        transactionService.createTransaction("01000100", request, user);
+        entityManager.flush();
+
+        // Account lookup, conditional balance update and the insert; no merge SELECT for the new id
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTransactionPage_shouldWalkAllPagesInStableOrder() {
+        String cursor = null;
+        String previousId = null;
+        int seen = 0;
+        do {
+            TransactionPageResponse page = transactionService.getTransactionPage("01000100", user, 7, cursor);
+            for (var txn : page.getTransactions()) {
+                if (previousId != null) {
+                    assertTrue(txn.getId().compareTo(previousId) < 0);
+                }
+                assertEquals(user.getId().toString(), txn.getUserId());
+                previousId = txn.getId();
+                seen++;
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(40, seen);
+    }
+}
@@ -1,16 +1,30 @@
 package com.app.eaglebank.service;
 
 import com.app.eaglebank.dto.requests.CreateTransactionRequest;
+import com.app.eaglebank.dto.responses.TransactionPageResponse;
+import com.app.eaglebank.dto.responses.TransactionResponse;
+import com.app.eaglebank.exception.BadRequestException;
 import com.app.eaglebank.exception.ResourceNotFoundException;
 import com.app.eaglebank.model.Account;
 import com.app.eaglebank.model.Transaction;
 import com.app.eaglebank.model.User;
 import com.app.eaglebank.repository.AccountRepository;
+import com.app.eaglebank.repository.ArchivedTransactionRepository;
+import com.app.eaglebank.repository.IdempotencyKeyRepository;
 import com.app.eaglebank.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,7 +35,10 @@ import static org.mockito.Mockito.*;
 public class TransactionServiceTest {
 
     private TransactionRepository transactionRepository;
+    private ArchivedTransactionRepository archivedTransactionRepository;
     private AccountRepository accountRepository;
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private ApplicationEventPublisher eventPublisher;
     private TransactionService transactionService;
 
     private User user;
@@ -32,8 +49,17 @@ public class TransactionServiceTest {
     @BeforeEach
     void setUp() {
         transactionRepository = mock(TransactionRepository.class);
+        archivedTransactionRepository = mock(ArchivedTransactionRepository.class);
         accountRepository = mock(AccountRepository.class);
-        transactionService = new TransactionService(transactionRepository, accountRepository);
+        idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        transactionService = new TransactionService(transactionRepository, archivedTransactionRepository, accountRepository,
+                new AccountCache(accountRepository, 1000, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+                new AccountPostingSequencer(16), mock(BalanceSnapshotService.class),
+                new TransactionIdGenerator(1, System::currentTimeMillis),
+                new IdempotencyStore(idempotencyKeyRepository, transactionRepository, Duration.ofHours(24), 1000,
+                        new SimpleMeterRegistry()),
+                mock(PlatformTransactionManager.class), eventPublisher);
 
         user = new User();
         user.setId(UUID.randomUUID());
@@ -53,7 +79,9 @@ public class TransactionServiceTest {
         req.setType("deposit");
         req.setReference("Top-up");
 
-        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.applyBalanceDelta(eq(account.getId()), eq(BigDecimal.valueOf(100)), any(), any()))
+                .thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
@@ -63,6 +91,8 @@ public class TransactionServiceTest {
         assertEquals("deposit", txn.getType());
         assertEquals(BigDecimal.valueOf(600), account.getBalance());
         assertNotNull(txn.getId());
+        verify(accountRepository).applyBalanceDelta(eq(account.getId()), eq(BigDecimal.valueOf(100)), any(), any());
+        verify(eventPublisher).publishEvent(EntityChangedEvent.accountUpdated(account));
     }
 
     @Test
@@ -73,13 +103,16 @@ public class TransactionServiceTest {
         req.setType("withdrawal");
         req.setReference("Shopping");
 
-        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.applyBalanceDelta(eq(account.getId()), eq(BigDecimal.valueOf(-200)), any(), any()))
+                .thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
 
         Transaction txn = transactionService.createTransaction("01000001", req, user);
 
         assertEquals("withdrawal", txn.getType());
         assertEquals(BigDecimal.valueOf(300), account.getBalance());
+        verify(accountRepository).applyBalanceDelta(eq(account.getId()), eq(BigDecimal.valueOf(-200)), any(), any());
     }
 
     @Test
@@ -90,7 +123,7 @@ public class TransactionServiceTest {
         req.setType("withdrawal");
         req.setReference("Big Purchase");
 
-        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
 
         var ex = assertThrows(Exception.class,
                 () -> transactionService.createTransaction("01000001", req, user)
@@ -98,6 +131,25 @@ public class TransactionServiceTest {
         assertTrue(ex.getMessage().contains("Insufficient balance"));
     }
 
+    @Test
+    void testWithdrawalRejectedByConditionalUpdateThrowsException() {
+        // Balance looked sufficient when read, but a concurrent posting drained it first
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(BigDecimal.valueOf(400));
+        req.setCurrency("GBP");
+        req.setType("withdrawal");
+        req.setReference("Race");
+
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.applyBalanceDelta(any(), any(), any(), any())).thenReturn(0);
+
+        var ex = assertThrows(Exception.class,
+                () -> transactionService.createTransaction("01000001", req, user)
+        );
+        assertTrue(ex.getMessage().contains("Insufficient balance"));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
     @Test
     void testInvalidTransactionTypeThrowsException() {
         CreateTransactionRequest req = new CreateTransactionRequest();
@@ -106,7 +158,7 @@ public class TransactionServiceTest {
         req.setType("transfer"); // invalid
         req.setReference("Unknown");
 
-        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
 
         var ex = assertThrows(Exception.class,
                 () -> transactionService.createTransaction("01000001", req, user)
@@ -122,7 +174,7 @@ public class TransactionServiceTest {
         req.setType("deposit");
         req.setReference("Missing account");
 
-        when(accountRepository.findByAccountNumber("00000000")).thenReturn(Optional.empty());
+        when(accountRepository.findCurrentByAccountNumber("00000000")).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> transactionService.createTransaction("00000000", req, user)
@@ -141,7 +193,7 @@ public class TransactionServiceTest {
         User intruder = new User();
         intruder.setId(UUID.randomUUID());
 
-        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
 
         assertThrows(SecurityException.class,
                 () -> transactionService.createTransaction("01000001", req, intruder)
@@ -156,7 +208,7 @@ public class TransactionServiceTest {
         req.setType("deposit");
         req.setReference("No funds");
 
-        when(accountRepository.findByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
 
         assertThrows(IllegalArgumentException.class,
                 () -> transactionService.createTransaction("01000001", req, user)
@@ -164,35 +216,177 @@ public class TransactionServiceTest {
     }
 
     @Test
-    void testGetTransactionsByAccountId_OwnAccount_Success() {
+    void testGetTransactionPage_OwnAccount_Success() {
         // Arrange
-        Transaction tx = new Transaction();
-        tx.setId("tan-abc123");
-
-        List<Transaction> transactions = List.of(tx);
+        TransactionResponse tx = transaction("tan-abc123", Instant.parse("2025-01-01T10:00:00Z"));
 
         when(accountRepository.findByAccountNumber("123456789"))
                 .thenReturn(Optional.of(account));
-        when(transactionRepository.findByAccount_AccountNumber("123456789"))
-                .thenReturn(transactions);
+        when(transactionRepository.findFirstPage(eq(account.getId()), any(Limit.class)))
+                .thenReturn(List.of(tx));
 
         // Act
-        List<Transaction> result = transactionService.getTransactionsByAccountId("123456789", user);
+        TransactionPageResponse result = transactionService.getTransactionPage("123456789", user, null, null);
 
         // Assert
-        assertEquals(1, result.size());
-        assertEquals("tan-abc123", result.get(0).getId());
+        assertEquals(1, result.getTransactions().size());
+        assertEquals("tan-abc123", result.getTransactions().get(0).getId());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionPage_ReturnsCursorThatResumesAfterLastRow() {
+        TransactionResponse newest = transaction("tan-bbb", Instant.parse("2025-01-02T10:00:00Z"));
+        TransactionResponse older = transaction("tan-aaa", Instant.parse("2025-01-01T10:00:00Z"));
+
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(account));
+        when(transactionRepository.findFirstPage(account.getId(), Limit.of(2)))
+                .thenReturn(List.of(newest, older));
+
+        TransactionPageResponse first = transactionService.getTransactionPage("123456789", user, 1, null);
+
+        assertEquals(1, first.getTransactions().size());
+        assertEquals("tan-bbb", first.getTransactions().get(0).getId());
+        assertNotNull(first.getNextCursor());
+
+        when(transactionRepository.findPageAfter(account.getId(), newest.getCreatedTimestamp(), "tan-bbb", Limit.of(2)))
+                .thenReturn(List.of(older));
+
+        TransactionPageResponse second = transactionService.getTransactionPage("123456789", user, 1, first.getNextCursor());
+
+        assertEquals("tan-aaa", second.getTransactions().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionPage_ShortHotPageContinuesIntoArchive() {
+        TransactionResponse hot = transaction("tan-ccc", Instant.parse("2025-03-01T10:00:00Z"));
+        TransactionResponse archivedNewer = transaction("tan-bbb", Instant.parse("2024-01-02T10:00:00Z"));
+        TransactionResponse archivedOlder = transaction("tan-aaa", Instant.parse("2024-01-01T10:00:00Z"));
+
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(account));
+        when(transactionRepository.findFirstPage(account.getId(), Limit.of(3)))
+                .thenReturn(List.of(hot));
+        when(archivedTransactionRepository.findPageAfter(account.getId(), hot.getCreatedTimestamp(), "tan-ccc", Limit.of(2)))
+                .thenReturn(List.of(archivedNewer, archivedOlder));
+
+        TransactionPageResponse first = transactionService.getTransactionPage("123456789", user, 2, null);
+
+        assertEquals(List.of("tan-ccc", "tan-bbb"), first.getTransactions().stream().map(TransactionResponse::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        // The next cursor lies in the archive; the hot table has nothing older and the page reads through
+        when(archivedTransactionRepository.findPageAfter(account.getId(), archivedNewer.getCreatedTimestamp(), "tan-bbb", Limit.of(3)))
+                .thenReturn(List.of(archivedOlder));
+
+        TransactionPageResponse second = transactionService.getTransactionPage("123456789", user, 2, first.getNextCursor());
+
+        assertEquals(List.of("tan-aaa"), second.getTransactions().stream().map(TransactionResponse::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionPage_FullHotPageDoesNotQueryArchive() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(account));
+        when(transactionRepository.findFirstPage(account.getId(), Limit.of(2)))
+                .thenReturn(List.of(transaction("tan-bbb", Instant.parse("2025-01-02T10:00:00Z")),
+                        transaction("tan-aaa", Instant.parse("2025-01-01T10:00:00Z"))));
+
+        transactionService.getTransactionPage("123456789", user, 1, null);
+
+        verifyNoInteractions(archivedTransactionRepository);
     }
 
     @Test
-    void testGetTransactionsByAccountId_AccountNotFound_ThrowsResourceNotFoundException() {
+    void testGetTransactionPage_InvalidCursor_ThrowsBadRequestException() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(account));
+
+        assertThrows(BadRequestException.class, () ->
+                transactionService.getTransactionPage("123456789", user, 10, "not-a-cursor")
+        );
+    }
+
+    @Test
+    void testGetTransactionPage_AccountNotFound_ThrowsResourceNotFoundException() {
         // Arrange
         when(accountRepository.findByAccountNumber("123456789"))
                 .thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () ->
-                transactionService.getTransactionsByAccountId("123456789", user)
+                transactionService.getTransactionPage("123456789", user, null, null)
         );
     }
+
+    @Test
+    void testRepeatedIdempotencyKey_ReplaysOriginalResponseWithoutPostingAgain() {
+        CreateTransactionRequest req = depositRequest(100);
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.applyBalanceDelta(eq(account.getId()), any(), any(), any())).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+
+        TransactionResponse first = transactionService.createTransaction("01000001", req, user, "retry-1");
+        TransactionResponse second = transactionService.createTransaction("01000001", req, user, "retry-1");
+
+        assertSame(first, second);
+        assertEquals(BigDecimal.valueOf(600), account.getBalance());
+        verify(accountRepository, times(1)).applyBalanceDelta(eq(account.getId()), any(), any(), any());
+        verify(idempotencyKeyRepository).insert(eq(user.getId()), eq("retry-1"),
+                eq(IdempotencyStore.fingerprint("01000001", req)), eq(first.getId()), any());
+    }
+
+    @Test
+    void testIdempotencyKeyReusedForDifferentRequest_ThrowsUnprocessableEntity() {
+        when(accountRepository.findCurrentByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(accountRepository.applyBalanceDelta(eq(account.getId()), any(), any(), any())).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+        transactionService.createTransaction("01000001", depositRequest(100), user, "retry-2");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () ->
+                transactionService.createTransaction("01000001", depositRequest(200), user, "retry-2"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        verify(accountRepository, times(1)).applyBalanceDelta(eq(account.getId()), any(), any(), any());
+    }
+
+    @Test
+    void testIdempotencyKeyAlreadyStored_ReplaysStoredResponseWithoutTouchingBalance() {
+        CreateTransactionRequest req = depositRequest(100);
+        TransactionResponse original = transaction("tan-original", Instant.now());
+        doThrow(new DuplicateKeyException("duplicate key"))
+                .when(idempotencyKeyRepository).insert(any(), any(), any(), any(), any());
+        when(idempotencyKeyRepository.find(user.getId(), "retry-3")).thenReturn(Optional.of(
+                new IdempotencyKeyRepository.StoredKey(IdempotencyStore.fingerprint("01000001", req), "tan-original")));
+        when(transactionRepository.findResponseById("tan-original")).thenReturn(Optional.of(original));
+
+        TransactionResponse result = transactionService.createTransaction("01000001", req, user, "retry-3");
+
+        assertSame(original, result);
+        verify(accountRepository, never()).applyBalanceDelta(any(), any(), any(), any());
+    }
+
+    @Test
+    void testOverlongIdempotencyKey_ThrowsBadRequestException() {
+        String key = "k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1);
+
+        assertThrows(BadRequestException.class, () ->
+                transactionService.createTransaction("01000001", depositRequest(100), user, key));
+    }
+
+    private CreateTransactionRequest depositRequest(long amount) {
+        CreateTransactionRequest req = new CreateTransactionRequest();
+        req.setAmount(BigDecimal.valueOf(amount));
+        req.setCurrency("GBP");
+        req.setType("deposit");
+        req.setReference("Retry");
+        return req;
+    }
+
+    private TransactionResponse transaction(String id, Instant timestamp) {
+        return new TransactionResponse(id, BigDecimal.TEN, "GBP", "deposit", null, user.getId(), timestamp);
+    }
 }
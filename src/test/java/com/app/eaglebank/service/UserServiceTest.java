@@ -5,10 +5,13 @@ import com.app.eaglebank.exception.ResourceNotFoundException;
 import com.app.eaglebank.model.User;
 import com.app.eaglebank.repository.AccountRepository;
 import com.app.eaglebank.repository.UserRepository;
+import com.app.eaglebank.security.PrincipalCache;
+import com.app.eaglebank.security.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
@@ -24,6 +27,9 @@ public class UserServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private AccountRepository accountRepository;
     @Mock private PasswordEncoder passwordEncoder;
+    @Mock private PrincipalCache principalCache;
+    @Mock private TokenVersionRegistry tokenVersionRegistry;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks private UserService userService;
 
@@ -36,6 +42,7 @@ public class UserServiceTest {
         user = new User();
         user.setId(userId);
         user.setName("Test User");
+        user.setEmail("test@example.com");
         user.setPassword("plainPassword");
     }
 
@@ -100,6 +107,10 @@ public class UserServiceTest {
 
         assertEquals("Updated Name", result.getName());
         assertEquals("encodedPass", result.getPassword());
+        assertEquals(1, result.getTokenVersion());
+        verify(principalCache).invalidateUser("test@example.com");
+        verify(tokenVersionRegistry).evict(userId);
+        verify(eventPublisher).publishEvent(EntityChangedEvent.userUpdated(user));
     }
 
     @Test
@@ -121,6 +132,9 @@ public class UserServiceTest {
         userService.deleteUserIfNoAccounts(userId);
 
         verify(userRepository).delete(user);
+        verify(principalCache).invalidateUser("test@example.com");
+        verify(tokenVersionRegistry).evict(userId);
+        verify(eventPublisher).publishEvent(EntityChangedEvent.userDeleted(user));
     }
 
     @Test